@@ -2,6 +2,8 @@ package com.backend.babyspa.v1.config;
 
 import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -10,11 +12,30 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 @EnableAsync
 public class AsyncConfig {
 
+  @Autowired private TenantTaskDecorator tenantTaskDecorator;
+
+  // @Async metode dobijaju tenant i korisnika iz thread-a koji ih je pozvao
+  @Bean
   public Executor taskExecutor() {
     ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
     executor.setCorePoolSize(2); // Minimalan broj aktivnih thread-ova
     executor.setMaxPoolSize(5); // Maksimalan broj thread-ova
     executor.setQueueCapacity(50); // Kapacitet reda čekanja
+    executor.setThreadNamePrefix("async-");
+    executor.setTaskDecorator(tenantTaskDecorator);
+    executor.initialize();
+    return executor;
+  }
+
+  // generisanje izvjestaja se pokrece u pozadini, pa HTTP zahtjev odmah vraca job Id
+  @Bean
+  public Executor reportTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(2);
+    executor.setMaxPoolSize(4);
+    executor.setQueueCapacity(20);
+    executor.setThreadNamePrefix("report-");
+    executor.setTaskDecorator(tenantTaskDecorator);
     executor.initialize();
     return executor;
   }
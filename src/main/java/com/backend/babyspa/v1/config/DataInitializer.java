@@ -16,6 +16,8 @@ import com.backend.babyspa.v1.models.StatusType;
 import com.backend.babyspa.v1.models.User;
 import com.backend.babyspa.v1.models.UserRole;
 import com.backend.babyspa.v1.models.UserRoleKey;
+import com.backend.babyspa.v1.repositories.ArrangementRepository;
+import com.backend.babyspa.v1.repositories.ArrangementSnapshotRepository;
 import com.backend.babyspa.v1.repositories.DiscountRepository;
 import com.backend.babyspa.v1.repositories.PaymentTypeRepository;
 import com.backend.babyspa.v1.repositories.RoleRepository;
@@ -43,6 +45,10 @@ public class DataInitializer implements CommandLineRunner {
 
   @Autowired private PasswordEncoder passwordEncoder;
 
+  @Autowired private ArrangementRepository arrangementRepository;
+
+  @Autowired private ArrangementSnapshotRepository arrangementSnapshotRepository;
+
   @Override
   public void run(String... args) throws Exception {
 
@@ -130,5 +136,9 @@ public class DataInitializer implements CommandLineRunner {
       userRole.setUserRoleKey(new UserRoleKey(user.getUserId(), role.getRoleId()));
       userRoleRepository.save(userRole);
     }
+
+    arrangementRepository.backfillValidityWindow();
+    arrangementSnapshotRepository.migrateLegacySnapshots();
+    arrangementSnapshotRepository.backfillChangedFields();
   }
 }
@@ -3,6 +3,7 @@ package com.backend.babyspa.v1.config;
 import java.io.IOException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,8 +11,11 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.backend.babyspa.v1.services.TokenRevocationService;
 import com.backend.babyspa.v1.utils.JwtUtil;
 
+import io.jsonwebtoken.Claims;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,6 +28,11 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
   @Autowired private JwtUtil jwtUtil;
 
+  @Autowired private TokenRevocationService tokenRevocationService;
+
+  @Value("${jwt.stateless}")
+  private boolean stateless;
+
   @Override
   protected void doFilterInternal(
       HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -32,18 +41,24 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     try {
       final String authorizationHeader = request.getHeader("Authorization");
       String username = null;
-      String jwt = null;
+      Claims claims = null;
 
+      // token se parsira i verifikuje samo jednom po zahtjevu
       if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-        jwt = authorizationHeader.substring(7);
-        username = jwtUtil.extractUsername(jwt);
+        claims = jwtUtil.parseToken(authorizationHeader.substring(7));
+        username = claims.getSubject();
       }
 
-      if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-        UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+      if (username != null
+          && SecurityContextHolder.getContext().getAuthentication() == null
+          && !tokenRevocationService.isRevoked(claims)) {
+        UserDetails userDetails =
+            stateless
+                ? jwtUtil.extractUserDetails(claims)
+                : this.userDetailsService.loadUserByUsername(username);
 
-        if (jwtUtil.validateToken(jwt, userDetails)) {
-          String tenantId = jwtUtil.extractTenantId(jwt);
+        if (jwtUtil.validateToken(claims, userDetails)) {
+          String tenantId = jwtUtil.extractTenantId(claims);
           TenantContext.setTenant(tenantId);
 
           UsernamePasswordAuthenticationToken authentication =
@@ -61,6 +76,10 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     } catch (Exception e) {
       System.out.println("JWT filter error: " + e.getMessage());
       filterChain.doFilter(request, response);
+    } finally {
+      // zahtjev odbijen prije TenantInterceptor-a ne smije ostaviti tenant na thread-u, jer bi
+      // sljedeca sesija na tom thread-u bila filtrirana po njemu
+      TenantContext.clear();
     }
   }
 }
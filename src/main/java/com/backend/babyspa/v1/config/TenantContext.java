@@ -1,5 +1,7 @@
 package com.backend.babyspa.v1.config;
 
+import java.util.function.Supplier;
+
 public class TenantContext {
 
   private static final ThreadLocal<String> currentTenant = new ThreadLocal<>();
@@ -15,4 +17,33 @@ public class TenantContext {
   public static void clear() {
     currentTenant.remove();
   }
+
+  // tenant vazi samo tokom poziva, a nakon njega se vraca prethodni (ili se brise), pa pozadinski
+  // thread-ovi iz pool-a ne mogu zadrzati tenant prethodnog posla
+  public static void runWithTenant(String tenantId, Runnable action) {
+    callWithTenant(
+        tenantId,
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+
+  public static <T> T callWithTenant(String tenantId, Supplier<T> action) {
+    String previousTenant = currentTenant.get();
+    setOrClear(tenantId);
+    try {
+      return action.get();
+    } finally {
+      setOrClear(previousTenant);
+    }
+  }
+
+  private static void setOrClear(String tenantId) {
+    if (tenantId == null) {
+      currentTenant.remove();
+    } else {
+      currentTenant.set(tenantId);
+    }
+  }
 }
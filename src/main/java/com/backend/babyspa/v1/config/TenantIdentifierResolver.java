@@ -0,0 +1,38 @@
+package com.backend.babyspa.v1.config;
+
+import java.util.Map;
+import java.util.Objects;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+// tenant se cita jednom, kod otvaranja sesije, pa TenantContext mora biti postavljen prije
+// transakcije. Sesija otvorena bez tenanta (prijava, inicijalni podaci) vidi sve tenante.
+@Component
+public class TenantIdentifierResolver
+    implements CurrentTenantIdentifierResolver<String>, HibernatePropertiesCustomizer {
+
+  static final String ALL_TENANTS = "*";
+
+  @Override
+  public String resolveCurrentTenantIdentifier() {
+    return Objects.requireNonNullElse(TenantContext.getTenant(), ALL_TENANTS);
+  }
+
+  @Override
+  public boolean validateExistingCurrentSessions() {
+    return false;
+  }
+
+  @Override
+  public boolean isRoot(String tenantId) {
+    return ALL_TENANTS.equals(tenantId);
+  }
+
+  @Override
+  public void customize(Map<String, Object> hibernateProperties) {
+    hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, this);
+  }
+}
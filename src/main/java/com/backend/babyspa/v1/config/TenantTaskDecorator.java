@@ -0,0 +1,23 @@
+package com.backend.babyspa.v1.config;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+// posao predat executor-u se izvrsava sa tenantom i korisnikom thread-a koji ga je predao; oba se
+// nakon posla vracaju na prethodno stanje thread-a iz pool-a
+@Component
+public class TenantTaskDecorator implements TaskDecorator {
+
+  @Override
+  public Runnable decorate(Runnable runnable) {
+    String tenantId = TenantContext.getTenant();
+    SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+    securityContext.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+
+    return new DelegatingSecurityContextRunnable(
+        () -> TenantContext.runWithTenant(tenantId, runnable), securityContext);
+  }
+}
@@ -0,0 +1,41 @@
+package com.backend.babyspa.v1.config;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Hibernate veze tenant za sesiju kod njenog otvaranja, pa posao za drugi tenant mora dobiti
+// novu sesiju: postojeca transakcija se suspenduje, a open-in-view EntityManager zahtjeva se
+// privremeno odvezuje, jer bi ga nova transakcija inace preuzela zajedno sa tenantom pozivaoca
+@Component
+public class TenantTransactionRunner {
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  public <T> T callInTenant(String tenantId, Supplier<T> action) {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+    Object openInViewHolder =
+        TransactionSynchronizationManager.isActualTransactionActive()
+            ? null
+            : TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+    try {
+      return TenantContext.callWithTenant(
+          tenantId, () -> transactionTemplate.execute(status -> action.get()));
+    } finally {
+      if (openInViewHolder != null) {
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, openInViewHolder);
+      }
+    }
+  }
+}
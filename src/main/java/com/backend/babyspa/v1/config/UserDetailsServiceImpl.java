@@ -14,6 +14,7 @@ import com.backend.babyspa.v1.models.User;
 import com.backend.babyspa.v1.models.UserRole;
 import com.backend.babyspa.v1.repositories.UserRepository;
 import com.backend.babyspa.v1.repositories.UserRoleRepository;
+import com.backend.babyspa.v1.services.UserCacheService;
 
 @Service
 @Primary
@@ -23,8 +24,14 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
   @Autowired private UserRoleRepository userRoleRepository;
 
+  @Autowired private UserCacheService userCacheService;
+
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    return userCacheService.getUserDetails(username, this::loadFromDatabase);
+  }
+
+  private AuthUserDetails loadFromDatabase(String username) {
     User user =
         userRepository
             .findByUsername(username)
@@ -2,6 +2,7 @@ package com.backend.babyspa.v1.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -12,6 +13,7 @@ public class WebMvcConfig implements WebMvcConfigurer {
 
   @Override
   public void addInterceptors(@org.springframework.lang.NonNull InterceptorRegistry registry) {
-    registry.addInterceptor(tenantInterceptor);
+    // tenant mora biti postavljen prije nego sto open-in-view otvori sesiju
+    registry.addInterceptor(tenantInterceptor).order(Ordered.HIGHEST_PRECEDENCE);
   }
 }
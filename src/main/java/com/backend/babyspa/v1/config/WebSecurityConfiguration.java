@@ -53,7 +53,11 @@ public class WebSecurityConfiguration {
   private static final String[] permitAllURLs = {"/user/login"};
 
   private static final String[] reportURLs = {
-    "/service-package-daily-report/find-all", "/reservation-daily-report/find-all"
+    "/service-package-daily-report/find-all",
+    "/reservation-daily-report/find-all",
+    "/service-package-daily-report/find-all-series",
+    "/reservation-daily-report/find-all-series",
+    "/reservation-daily-report/today"
   };
   private static final String[] babyURLs = {
     "/baby/find-by-id", "/baby/find-all", "/baby/save", "/baby/update", "/baby/delete"
@@ -65,6 +69,9 @@ public class WebSecurityConfiguration {
     "/arrangement/update",
     "/arrangement/delete",
     "/arrangement/find-price",
+    "/arrangement/find-all-expiring",
+    "/arrangement/find-snapshot",
+    "/arrangement/history",
     "/service-package/find-all-list",
     "/baby/find-all-list",
     "/status/find-all-status-type-code",
@@ -96,7 +103,7 @@ public class WebSecurityConfiguration {
   private static final String[] giftCardURLs = {
     "/gift-card/**",
   };
-  private static final String[] superAdminURLs = {"/user/add-new-tenant"};
+  private static final String[] superAdminURLs = {"/user/add-new-tenant", "/actuator/**"};
 
   @Bean
   public UserDetailsService userDetailsService() {
@@ -17,6 +17,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.backend.babyspa.v1.dtos.ArrangementHistoryDto;
+import com.backend.babyspa.v1.dtos.ArrangementSnapshotDto;
 import com.backend.babyspa.v1.dtos.CreateArrangementDto;
 import com.backend.babyspa.v1.dtos.FindAllArrangementDto;
 import com.backend.babyspa.v1.dtos.ShortDetailsDto;
@@ -137,6 +139,38 @@ public class ArrangementController {
                 endRangeDate)));
   }
 
+  @GetMapping("/find-all-expiring")
+  public ResponseEntity<ApiResponse<List<FindAllArrangementDto>>> findAllExpiring(
+      @RequestParam(defaultValue = "7") int days) {
+
+    return ResponseEntity.ok(ApiResponse.success(arrangementService.findAllExpiring(days)));
+  }
+
+  // kursor je actionAt i arrangementAudId posljednjeg reda sa prethodne stranice; actionAt se
+  // salje u ISO formatu sa dijelovima sekunde, jer bi zaokruzen na sekunde preskocio redove
+  @GetMapping("/history")
+  public ResponseEntity<ApiResponse<List<ArrangementHistoryDto>>> findHistory(
+      @RequestParam int arrangementId,
+      @RequestParam(defaultValue = "20") int size,
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) @RequestParam(required = false)
+          LocalDateTime cursorActionAt,
+      @RequestParam(required = false) Integer cursorArrangementAudId) {
+
+    return ResponseEntity.ok(
+        ApiResponse.success(
+            arrangementService.findHistory(
+                arrangementId, size, cursorActionAt, cursorArrangementAudId)));
+  }
+
+  // bez version parametra vraca posljednju verziju
+  @GetMapping("/find-snapshot")
+  public ResponseEntity<ApiResponse<ArrangementSnapshotDto>> findSnapshot(
+      @RequestParam int arrangementId, @RequestParam(required = false) Integer version) {
+
+    return ResponseEntity.ok(
+        ApiResponse.success(arrangementService.findSnapshot(arrangementId, version)));
+  }
+
   @GetMapping("/find-all-list")
   public ResponseEntity<ApiResponse<List<ShortDetailsDto>>> findAllList() {
 
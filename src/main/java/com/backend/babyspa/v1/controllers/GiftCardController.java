@@ -55,12 +55,20 @@ public class GiftCardController {
       @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") @RequestParam(required = false)
           LocalDateTime startRangeDate,
       @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") @RequestParam(required = false)
-          LocalDateTime endRangeDate) {
+          LocalDateTime endRangeDate,
+      @RequestParam(required = false) Integer cursorGiftCardId) {
 
     return ResponseEntity.ok(
         ApiResponse.success(
             giftCardService.findAll(
-                page, size, serialNumber, isUsed, giftCardId, startRangeDate, endRangeDate)));
+                page,
+                size,
+                serialNumber,
+                isUsed,
+                giftCardId,
+                startRangeDate,
+                endRangeDate,
+                cursorGiftCardId)));
   }
 
   @DeleteMapping("/delete")
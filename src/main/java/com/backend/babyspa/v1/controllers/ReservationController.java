@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.backend.babyspa.v1.config.TenantContext;
 import com.backend.babyspa.v1.models.Reservation;
+import com.backend.babyspa.v1.services.ReportGenerationJobService;
 import com.backend.babyspa.v1.services.ReservationService;
 import com.backend.babyspa.v1.utils.ApiResponse;
 
@@ -31,6 +32,8 @@ public class ReservationController {
 
   @Autowired private ReservationService reservationService;
 
+  @Autowired private ReportGenerationJobService reportGenerationJobService;
+
   @GetMapping("/find-by-id")
   public ResponseEntity<ApiResponse<Reservation>> findById(@RequestParam int reservationId) {
 
@@ -87,12 +90,24 @@ public class ReservationController {
       @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") @RequestParam(required = false)
           LocalDateTime startRangeDate,
       @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") @RequestParam(required = false)
-          LocalDateTime endRangeDate) {
+          LocalDateTime endRangeDate,
+      @RequestParam(required = false) Integer cursorSortBucket,
+      @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") @RequestParam(required = false)
+          LocalDateTime cursorStartDate,
+      @RequestParam(required = false) Integer cursorReservationId) {
 
     return ResponseEntity.ok(
         ApiResponse.success(
             reservationService.findAll(
-                page, size, statusId, arrangementId, startRangeDate, endRangeDate)));
+                page,
+                size,
+                statusId,
+                arrangementId,
+                startRangeDate,
+                endRangeDate,
+                cursorSortBucket,
+                cursorStartDate,
+                cursorReservationId)));
   }
 
   @GetMapping("/find-all-by-arrangement")
@@ -111,14 +126,26 @@ public class ReservationController {
   }
 
   @GetMapping("/generate-report")
-  public void generateReports(
+  public ResponseEntity<ApiResponse<ReportGenerationJobDto>> generateReports(
       @RequestParam(required = true) boolean generateForAllDays,
       @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") @RequestParam(required = false)
           LocalDateTime date) {
 
-    reservationService.generateReportForAllDateInReservation(
-        generateForAllDays,
-        Objects.nonNull(date) ? date.toLocalDate() : null,
-        TenantContext.getTenant());
+    // bez datuma se generisu samo izmijenjeni datumi, isto kao u nocnom scheduleru
+    return ResponseEntity.ok(
+        ApiResponse.success(
+            reportGenerationJobService.submit(
+                generateForAllDays,
+                !generateForAllDays && Objects.nonNull(date) ? date.toLocalDate() : null,
+                TenantContext.getTenant())));
+  }
+
+  @GetMapping("/generate-report-status")
+  public ResponseEntity<ApiResponse<ReportGenerationJobDto>> generateReportStatus(
+      @RequestParam String jobId) {
+
+    return ResponseEntity.ok(
+        ApiResponse.success(
+            reportGenerationJobService.findById(jobId, TenantContext.getTenant())));
   }
 }
@@ -11,8 +11,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.backend.babyspa.v1.dtos.ReportSeriesDto;
+import com.backend.babyspa.v1.dtos.TodayReportDto;
 import com.backend.babyspa.v1.projections.ReservationDailyReportProjection;
 import com.backend.babyspa.v1.services.ReservationDailyReportService;
+import com.backend.babyspa.v1.services.TodayReservationCounterService;
 import com.backend.babyspa.v1.utils.ApiResponse;
 
 @RestController
@@ -21,6 +24,8 @@ public class ReservationDailyReportController {
 
   @Autowired private ReservationDailyReportService reservationDailyReportService;
 
+  @Autowired private TodayReservationCounterService todayReservationCounterService;
+
   @GetMapping("/find-all")
   public ResponseEntity<ApiResponse<List<ReservationDailyReportProjection>>> findAll(
       @RequestParam(required = false) Integer statusId,
@@ -36,4 +41,25 @@ public class ReservationDailyReportController {
             reservationDailyReportService.findAll(
                 statusId, babyId, startRangeDate, endRangeDate, groupDataType)));
   }
+
+  @GetMapping("/find-all-series")
+  public ResponseEntity<ApiResponse<ReportSeriesDto>> findAllSeries(
+      @RequestParam(required = false) Integer babyId,
+      @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") @RequestParam(required = false)
+          LocalDateTime startRangeDate,
+      @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") @RequestParam(required = false)
+          LocalDateTime endRangeDate,
+      @RequestParam String groupDataType) {
+
+    return ResponseEntity.ok(
+        ApiResponse.success(
+            reservationDailyReportService.findAllSeries(
+                babyId, startRangeDate, endRangeDate, groupDataType)));
+  }
+
+  @GetMapping("/today")
+  public ResponseEntity<ApiResponse<TodayReportDto>> findToday() {
+
+    return ResponseEntity.ok(ApiResponse.success(todayReservationCounterService.findToday()));
+  }
 }
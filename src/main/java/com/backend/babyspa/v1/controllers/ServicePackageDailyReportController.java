@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.backend.babyspa.v1.dtos.ReportSeriesDto;
 import com.backend.babyspa.v1.projections.ServicePackagesDailyReportProjection;
 import com.backend.babyspa.v1.services.ServicePackageDailyReportService;
 import com.backend.babyspa.v1.utils.ApiResponse;
@@ -35,4 +36,18 @@ public class ServicePackageDailyReportController {
             servicePackageDailyReportService.findAll(
                 servicePackageId, startRangeDate, endRangeDate, groupDataType)));
   }
+
+  @GetMapping("/find-all-series")
+  public ResponseEntity<ApiResponse<ReportSeriesDto>> findAllSeries(
+      @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") @RequestParam(required = false)
+          LocalDateTime startRangeDate,
+      @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") @RequestParam(required = false)
+          LocalDateTime endRangeDate,
+      @RequestParam String groupDataType) {
+
+    return ResponseEntity.ok(
+        ApiResponse.success(
+            servicePackageDailyReportService.findAllSeries(
+                startRangeDate, endRangeDate, groupDataType)));
+  }
 }
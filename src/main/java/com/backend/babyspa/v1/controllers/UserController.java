@@ -19,6 +19,7 @@ import com.backend.babyspa.v1.dtos.LoginDto;
 import com.backend.babyspa.v1.dtos.LoginResponseDto;
 import com.backend.babyspa.v1.dtos.RegisterNewUserDto;
 import com.backend.babyspa.v1.dtos.UpdateUserDto;
+import com.backend.babyspa.v1.dtos.UpdateUserResponseDto;
 import com.backend.babyspa.v1.dtos.UserInfoDto;
 import com.backend.babyspa.v1.models.User;
 import com.backend.babyspa.v1.services.UserService;
@@ -79,7 +80,7 @@ public class UserController {
   }
 
   @PutMapping("/change-password")
-  public ResponseEntity<ApiResponse<String>> changePassword(
+  public ResponseEntity<ApiResponse<LoginResponseDto>> changePassword(
       @RequestBody ChangePasswordDto changePasswordDto, Authentication authentication) {
 
     return ResponseEntity.ok(
@@ -87,7 +88,7 @@ public class UserController {
   }
 
   @PutMapping("/update")
-  public ResponseEntity<ApiResponse<User>> update(
+  public ResponseEntity<ApiResponse<UpdateUserResponseDto>> update(
       @RequestBody @Valid UpdateUserDto updateUserDto, Authentication authentication) {
 
     return ResponseEntity.ok(
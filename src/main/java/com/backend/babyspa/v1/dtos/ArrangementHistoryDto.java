@@ -0,0 +1,28 @@
+package com.backend.babyspa.v1.dtos;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.backend.babyspa.v1.models.UserActionType;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArrangementHistoryDto {
+
+  private int arrangementAudId;
+  private LocalDateTime actionAt;
+  private UserActionType userActionType;
+  private Integer actionByUserId;
+  private String actionByUser;
+  // verzija snapshot-a; akcija bez promjene stanja ima istu verziju kao prethodna
+  private int version;
+  // promijenjena polja sa novim vrijednostima
+  private Map<String, Object> changes;
+}
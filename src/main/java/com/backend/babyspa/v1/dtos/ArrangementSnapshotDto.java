@@ -0,0 +1,20 @@
+package com.backend.babyspa.v1.dtos;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArrangementSnapshotDto {
+
+  private int arrangementId;
+  private int version;
+  // cijelo stanje aranzmana u toj verziji, sastavljeno od keyframe-a i izmjena nakon njega
+  private Map<String, Object> data;
+}
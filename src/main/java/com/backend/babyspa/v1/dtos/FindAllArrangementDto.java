@@ -18,6 +18,8 @@ public class FindAllArrangementDto {
   private LocalDateTime createdAt;
   private int remainingTerm;
   private Integer extendDurationDays;
+  private LocalDateTime firstReservationAt;
+  private LocalDateTime validUntil;
   private BigDecimal price;
   private String note;
   private ShortDetailsDto giftCard;
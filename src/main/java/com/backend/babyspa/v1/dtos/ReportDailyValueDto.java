@@ -2,8 +2,6 @@ package com.backend.babyspa.v1.dtos;
 
 import java.time.LocalDate;
 
-import com.backend.babyspa.v1.models.Status;
-
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,10 +11,10 @@ import lombok.Setter;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-public class ReservationDailyReportDto {
+public class ReportDailyValueDto {
 
-  private int numberOfReservation;
   private LocalDate date;
-  private Status status;
-  private int babyId;
+  private int seriesId;
+  private String series;
+  private int value;
 }
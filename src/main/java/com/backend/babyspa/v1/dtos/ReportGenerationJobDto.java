@@ -0,0 +1,31 @@
+package com.backend.babyspa.v1.dtos;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.backend.babyspa.v1.models.ReportGenerationJobStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportGenerationJobDto {
+
+  private String jobId;
+  private ReportGenerationJobStatus status;
+  private boolean generateForAllDays;
+  private LocalDate date;
+  private int totalDates;
+  private int processedDates;
+  private long rowsWritten;
+  private LocalDateTime createdAt;
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+  private long elapsedMillis;
+  private String errorMessage;
+}
@@ -0,0 +1,20 @@
+package com.backend.babyspa.v1.dtos;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportSeriesDto {
+
+  private List<String> dates;
+  // vrijednosti za svaku seriju, poredane isto kao dates
+  private Map<String, int[]> series;
+}
@@ -24,4 +24,5 @@ public class ReservationFindAllTableDto {
   private ShortDetailsDto babyDetails;
   private String servicePackageName;
   private String note;
+  private int sortBucket;
 }
@@ -1,8 +1,7 @@
 package com.backend.babyspa.v1.dtos;
 
 import java.time.LocalDate;
-
-import com.backend.babyspa.v1.models.ServicePackage;
+import java.util.Map;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -13,9 +12,11 @@ import lombok.Setter;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-public class ServicePackageDailyReportDto {
+public class TodayReportDto {
 
-  private int numberOfUsedPackages;
   private LocalDate date;
-  private ServicePackage servicePackage;
+  private long numberOfReservation;
+  // broj rezervacija po statusId i po servicePackageId
+  private Map<Integer, Long> reservationsByStatus;
+  private Map<Integer, Long> reservationsByServicePackage;
 }
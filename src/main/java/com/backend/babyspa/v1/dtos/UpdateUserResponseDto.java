@@ -0,0 +1,19 @@
+package com.backend.babyspa.v1.dtos;
+
+import com.backend.babyspa.v1.models.User;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class UpdateUserResponseDto {
+
+  private User user;
+
+  private String jwt;
+}
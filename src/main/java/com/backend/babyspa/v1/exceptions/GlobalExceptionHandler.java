@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Map;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -57,6 +58,16 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(ex.getMessage()));
   }
 
+  @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+  public ResponseEntity<ApiResponse<Void>> handleOptimisticLockingFailure(
+      ObjectOptimisticLockingFailureException ex) {
+    log.error("ObjectOptimisticLockingFailureException: {}", ex.getMessage(), ex);
+    return ResponseEntity.status(HttpStatus.CONFLICT)
+        .body(
+            ApiResponse.error(
+                "Podaci su u međuvremenu izmijenjeni, osvježite stranicu i pokušajte ponovo!"));
+  }
+
   @ExceptionHandler(IllegalArgumentException.class)
   public ResponseEntity<ApiResponse<Void>> handleIllegalArgument(IllegalArgumentException ex) {
     log.error("IllegalArgumentException: {}", ex.getMessage(), ex);
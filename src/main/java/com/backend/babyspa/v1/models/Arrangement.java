@@ -3,16 +3,17 @@ package com.backend.babyspa.v1.models;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
-import org.hibernate.annotations.Filter;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -23,8 +24,10 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Filter(name = "tenantFilter", condition = "tenant_id = :tenantId")
-@Table(name = "arrangement")
+@Table(
+    name = "arrangement",
+    indexes =
+        @Index(name = "idx_arrangement_tenant_valid_until", columnList = "tenant_id, valid_until"))
 public class Arrangement extends TenantEntity {
 
   @Id
@@ -38,9 +41,21 @@ public class Arrangement extends TenantEntity {
   @Column(name = "remaining_term", nullable = false)
   private int remainingTerm;
 
+  @Version
+  @Column(name = "version", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+  private long version;
+
   @Column(name = "extend_duration_days")
   private Integer extendDurationDays;
 
+  // pocetak prve rezervacije i kraj vazenja aranzmana (pocetak + trajanje paketa + produzenje);
+  // oba su null dok aranzman nema rezervacija
+  @Column(name = "first_reservation_at")
+  private LocalDateTime firstReservationAt;
+
+  @Column(name = "valid_until")
+  private LocalDateTime validUntil;
+
   @Column(name = "price", nullable = false)
   private BigDecimal price;
 
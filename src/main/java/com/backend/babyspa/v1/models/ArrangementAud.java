@@ -8,15 +8,18 @@ import lombok.Setter;
 
 import java.time.LocalDateTime;
 
-import org.hibernate.annotations.Filter;
 
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Filter(name = "tenantFilter", condition = "tenant_id = :tenantId")
-@Table(name = "arrangement_aud")
+@Table(
+    name = "arrangement_aud",
+    indexes =
+        @Index(
+            name = "idx_arrangement_aud_arrangement_action_at",
+            columnList = "arrangement_id, action_at, arrangement_aud_id"))
 public class ArrangementAud extends TenantEntity {
 
   @Id
@@ -24,7 +27,8 @@ public class ArrangementAud extends TenantEntity {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private int arrangementAudId;
 
-  @OneToOne
+  // aud bez promjene stanja dijeli snapshot prethodne verzije
+  @ManyToOne
   @JoinColumn(name = "arrangement_snapshot_id", nullable = false)
   private ArrangementSnapshot arrangementSnapshot;
 
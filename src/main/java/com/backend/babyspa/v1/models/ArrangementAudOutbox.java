@@ -0,0 +1,79 @@
+package com.backend.babyspa.v1.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// audit zapis aranzmana koji je upisan u istoj transakciji kao i izmjena, a jos nije prebacen u
+// arrangement_aud i arrangement_snapshot
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "arrangement_aud_outbox")
+public class ArrangementAudOutbox {
+
+  @Id
+  @Column(name = "arrangement_aud_outbox_id", nullable = false)
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private int arrangementAudOutboxId;
+
+  @Column(name = "tenant_id", nullable = false)
+  private String tenantId;
+
+  @Column(name = "arrangement_id", nullable = false)
+  private int arrangementId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "user_action_type", nullable = false)
+  private UserActionType userActionType;
+
+  @Column(name = "action_by_user_id")
+  private Integer actionByUserId;
+
+  @Column(name = "action_at", nullable = false)
+  private LocalDateTime actionAt;
+
+  @Column(name = "remaining_term", nullable = false)
+  private int remainingTerm;
+
+  @Column(name = "extend_duration_days")
+  private Integer extendDurationDays;
+
+  @Column(name = "price", nullable = false)
+  private BigDecimal price;
+
+  @Column(name = "note", columnDefinition = "TEXT")
+  private String note;
+
+  @Column(name = "discount_info", columnDefinition = "TEXT")
+  private String discountInfo;
+
+  @Column(name = "baby_info", columnDefinition = "TEXT")
+  private String babyInfo;
+
+  @Column(name = "status_info", columnDefinition = "TEXT")
+  private String statusInfo;
+
+  @Column(name = "service_package_info", columnDefinition = "TEXT")
+  private String servicePackageInfo;
+
+  @Column(name = "payment_type_info", columnDefinition = "TEXT")
+  private String paymentTypeInfo;
+
+  @Column(name = "gift_card_info", columnDefinition = "TEXT")
+  private String giftCardInfo;
+}
@@ -6,14 +6,26 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+// keyframe sadrzi cijelo stanje aranzmana, a ostale verzije samo polja koja su se promijenila u
+// odnosu na prethodnu verziju
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "arrangement_snapshot")
+@Table(
+    name = "arrangement_snapshot",
+    indexes =
+        @Index(
+            name = "uk_arrangement_snapshot_arrangement_version",
+            columnList = "arrangement_id, version",
+            unique = true))
 public class ArrangementSnapshot {
 
   @Id
@@ -21,33 +33,25 @@ public class ArrangementSnapshot {
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private int arrangementSnapshotId;
 
-  @Column(name = "remaining_term", nullable = false)
-  private int remainingTerm;
-
-  @Column(name = "extend_duration_days")
-  private Integer extendDurationDays;
-
-  @Column(name = "price", nullable = false)
-  private BigDecimal price;
-
-  @Column(name = "note", columnDefinition = "TEXT")
-  private String note;
-
-  @Column(name = "discount_info", columnDefinition = "TEXT")
-  private String discountInfo;
+  @Column(name = "arrangement_id")
+  private int arrangementId;
 
-  @Column(name = "baby_info", columnDefinition = "TEXT")
-  private String babyInfo;
+  @Column(name = "version")
+  private int version;
 
-  @Column(name = "status_info", columnDefinition = "TEXT")
-  private String statusInfo;
+  @Column(name = "keyframe", columnDefinition = "BOOLEAN NOT NULL DEFAULT FALSE")
+  private boolean keyframe;
 
-  @Column(name = "service_package_info", columnDefinition = "TEXT")
-  private String servicePackageInfo;
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(name = "data", columnDefinition = "jsonb")
+  private Map<String, Object> data;
 
-  @Column(name = "payment_type_info", columnDefinition = "TEXT")
-  private String paymentTypeInfo;
+  // polja promijenjena u odnosu na prethodnu verziju; kod keyframe-a data sadrzi i nepromijenjena
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(name = "changed_fields", columnDefinition = "jsonb")
+  private List<String> changedFields;
 
-  @Column(name = "gift_card_info")
-  private String giftCardInfo;
+  // SHA-256 cijelog stanja; null za snapshot-e prebacene iz starog formata
+  @Column(name = "content_hash", length = 64)
+  private String contentHash;
 }
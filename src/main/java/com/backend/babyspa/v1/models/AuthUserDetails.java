@@ -27,6 +27,13 @@ public class AuthUserDetails implements UserDetails {
             .collect(Collectors.toList());
   }
 
+  public AuthUserDetails(String username, List<String> roleNames) {
+    this.username = username;
+    this.active = true;
+    this.authorities =
+        roleNames.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+  }
+
   @Override
   public Collection<? extends GrantedAuthority> getAuthorities() {
     return authorities;
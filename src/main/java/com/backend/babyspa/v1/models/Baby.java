@@ -14,14 +14,12 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.hibernate.annotations.Filter;
 
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Filter(name = "tenantFilter", condition = "tenant_id = :tenantId")
 @Table(name = "baby")
 public class Baby extends TenantEntity {
 
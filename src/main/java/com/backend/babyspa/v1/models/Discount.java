@@ -2,7 +2,6 @@ package com.backend.babyspa.v1.models;
 
 import java.math.BigDecimal;
 
-import org.hibernate.annotations.Filter;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -20,7 +19,6 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Filter(name = "tenantFilter", condition = "tenant_id = :tenantId")
 @Table(name = "discount")
 public class Discount extends TenantEntity {
 
@@ -7,14 +7,12 @@ import lombok.*;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
-import org.hibernate.annotations.Filter;
 
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Filter(name = "tenantFilter", condition = "tenant_id = :tenantId")
 @Table(name = "gift_card")
 @EqualsAndHashCode(of = "serialNumber")
 public class GiftCard extends TenantEntity {
@@ -1,6 +1,5 @@
 package com.backend.babyspa.v1.models;
 
-import org.hibernate.annotations.Filter;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -18,7 +17,6 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Filter(name = "tenantFilter", condition = "tenant_id = :tenantId")
 @Table(name = "payment_type")
 public class PaymentType extends TenantEntity {
 
@@ -0,0 +1,45 @@
+package com.backend.babyspa.v1.models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(
+    name = "report_dirty_date",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_report_dirty_date_tenant_date",
+            columnNames = {"tenant_id", "date"}))
+public class ReportDirtyDate {
+
+  @Id
+  @Column(name = "report_dirty_date_id", nullable = false)
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private int reportDirtyDateId;
+
+  @Column(name = "date", nullable = false)
+  private LocalDate date;
+
+  @Column(name = "tenant_id", nullable = false)
+  private String tenantId;
+
+  // vrijeme posljednje oznake; generisanje brise samo oznake starije od svog pocetka
+  @Column(name = "marked_at", columnDefinition = "TIMESTAMP NOT NULL DEFAULT now()")
+  private LocalDateTime markedAt;
+}
@@ -0,0 +1,69 @@
+package com.backend.babyspa.v1.models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+
+// stanje jednog generisanja izvjestaja; azurira ga thread koji generise, a cita status endpoint
+@Getter
+public class ReportGenerationJob {
+
+  private final String jobId = UUID.randomUUID().toString();
+  private final String tenantId;
+  private final boolean generateForAllDays;
+  private final LocalDate date;
+  private final LocalDateTime createdAt = LocalDateTime.now();
+
+  private volatile ReportGenerationJobStatus status = ReportGenerationJobStatus.queued;
+  private volatile LocalDateTime startedAt;
+  private volatile LocalDateTime finishedAt;
+  private volatile String errorMessage;
+  private final AtomicInteger totalDates = new AtomicInteger();
+  private final AtomicInteger processedDates = new AtomicInteger();
+  private final AtomicLong rowsWritten = new AtomicLong();
+
+  public ReportGenerationJob(String tenantId, boolean generateForAllDays, LocalDate date) {
+    this.tenantId = tenantId;
+    this.generateForAllDays = generateForAllDays;
+    this.date = date;
+  }
+
+  public boolean hasSameRequest(boolean generateForAllDays, LocalDate date) {
+    return this.generateForAllDays == generateForAllDays && Objects.equals(this.date, date);
+  }
+
+  public boolean isFinished() {
+    return status == ReportGenerationJobStatus.completed
+        || status == ReportGenerationJobStatus.failed;
+  }
+
+  public void start() {
+    startedAt = LocalDateTime.now();
+    status = ReportGenerationJobStatus.running;
+  }
+
+  public void addTotalDates(int numberOfDates) {
+    totalDates.addAndGet(numberOfDates);
+  }
+
+  public void addProgress(int numberOfDates, long numberOfRows) {
+    processedDates.addAndGet(numberOfDates);
+    rowsWritten.addAndGet(numberOfRows);
+  }
+
+  public void complete() {
+    finishedAt = LocalDateTime.now();
+    status = ReportGenerationJobStatus.completed;
+  }
+
+  public void fail(String errorMessage) {
+    this.errorMessage = errorMessage;
+    finishedAt = LocalDateTime.now();
+    status = ReportGenerationJobStatus.failed;
+  }
+}
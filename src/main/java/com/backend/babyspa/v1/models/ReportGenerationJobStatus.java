@@ -0,0 +1,8 @@
+package com.backend.babyspa.v1.models;
+
+public enum ReportGenerationJobStatus {
+  queued,
+  running,
+  completed,
+  failed
+}
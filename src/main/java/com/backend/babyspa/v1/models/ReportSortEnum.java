@@ -2,6 +2,8 @@ package com.backend.babyspa.v1.models;
 
 public enum ReportSortEnum {
   year,
+  quarter,
   month,
+  week,
   day
 }
@@ -0,0 +1,33 @@
+package com.backend.babyspa.v1.models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "report_watermark")
+public class ReportWatermark {
+
+  @Id
+  @Column(name = "tenant_id", nullable = false)
+  private String tenantId;
+
+  // posljednji datum do kojeg (ukljucujuci) su izvjestaji generisani
+  @Column(name = "last_generated_date", nullable = false)
+  private LocalDate lastGeneratedDate;
+
+  @Column(name = "updated_at", nullable = false)
+  private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -2,13 +2,13 @@ package com.backend.babyspa.v1.models;
 
 import java.time.LocalDateTime;
 
-import org.hibernate.annotations.Filter;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -22,8 +22,14 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Filter(name = "tenantFilter", condition = "tenant_id = :tenantId")
-@Table(name = "reservation")
+@Table(
+    name = "reservation",
+    indexes = {
+      @Index(
+          name = "idx_reservation_tenant_deleted_start_date",
+          columnList = "tenant_id, is_deleted, start_date"),
+      @Index(name = "idx_reservation_tenant_arrangement", columnList = "tenant_id, arrangement_id")
+    })
 public class Reservation extends TenantEntity {
 
   @Id
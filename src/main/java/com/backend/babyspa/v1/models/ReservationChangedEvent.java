@@ -0,0 +1,33 @@
+package com.backend.babyspa.v1.models;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// objavljuje se kod svake izmjene rezervacije; previous je null za novu rezervaciju, a current za
+// obrisanu
+@Getter
+@AllArgsConstructor
+public class ReservationChangedEvent {
+
+  private final String tenantId;
+  private final ReservationState previous;
+  private final ReservationState current;
+
+  @Getter
+  @AllArgsConstructor
+  public static class ReservationState {
+
+    private final LocalDate date;
+    private final Integer statusId;
+    private final Integer servicePackageId;
+
+    public static ReservationState of(Reservation reservation) {
+      return new ReservationState(
+          reservation.getStartDate().toLocalDate(),
+          reservation.getStatus().getStatusId(),
+          reservation.getArrangement().getServicePackage().getServicePackageId());
+    }
+  }
+}
@@ -2,13 +2,13 @@ package com.backend.babyspa.v1.models;
 
 import java.time.LocalDate;
 
-import org.hibernate.annotations.Filter;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -22,8 +22,10 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Filter(name = "tenantFilter", condition = "tenant_id = :tenantId")
-@Table(name = "reservation_daily_report")
+@Table(
+    name = "reservation_daily_report",
+    indexes =
+        @Index(name = "idx_reservation_daily_report_tenant_date", columnList = "tenant_id, date"))
 public class ReservationDailyReport extends TenantEntity {
 
   @Id
@@ -0,0 +1,49 @@
+package com.backend.babyspa.v1.models;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// tabela u koju se upisuje puno generisanje izvjestaja prije nego sto se objavi u
+// reservation_daily_report
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(
+    name = "reservation_daily_report_staging",
+    indexes =
+        @Index(name = "idx_reservation_daily_report_staging_tenant", columnList = "tenant_id"))
+public class ReservationDailyReportStaging {
+
+  @Id
+  @Column(name = "reservation_daily_report_staging_id", nullable = false)
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private int reservationDailyReportStagingId;
+
+  @Column(name = "number_of_reservation", nullable = false)
+  private int numberOfReservation;
+
+  @Column(name = "date", nullable = false)
+  private LocalDate date;
+
+  @Column(name = "baby_id", nullable = false)
+  private int babyId;
+
+  @Column(name = "status_id", nullable = true)
+  private Integer statusId;
+
+  @Column(name = "tenant_id", nullable = false)
+  private String tenantId;
+}
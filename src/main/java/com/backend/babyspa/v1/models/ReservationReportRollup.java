@@ -0,0 +1,57 @@
+package com.backend.babyspa.v1.models;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// mjesecni i godisnji zbirovi reservation_daily_report, odrzavaju se pri svakoj izmjeni dnevnih
+// izvjestaja
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(
+    name = "reservation_report_rollup",
+    indexes =
+        @Index(
+            name = "idx_reservation_report_rollup_tenant_period",
+            columnList = "tenant_id, period, period_start, status_id, baby_id"))
+public class ReservationReportRollup {
+
+  @Id
+  @Column(name = "reservation_report_rollup_id", nullable = false)
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private int reservationReportRollupId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "period", nullable = false)
+  private ReportSortEnum period;
+
+  @Column(name = "period_start", nullable = false)
+  private LocalDate periodStart;
+
+  @Column(name = "status_id", nullable = true)
+  private Integer statusId;
+
+  @Column(name = "baby_id", nullable = false)
+  private int babyId;
+
+  @Column(name = "number_of_reservation", nullable = false)
+  private int numberOfReservation;
+
+  @Column(name = "tenant_id", nullable = false)
+  private String tenantId;
+}
@@ -0,0 +1,48 @@
+package com.backend.babyspa.v1.models;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// tabela u koju se upisuje puno generisanje izvjestaja prije nego sto se objavi u
+// service_package_daily_report
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(
+    name = "service_package_daily_report_staging",
+    indexes =
+        @Index(
+            name = "idx_service_package_daily_report_staging_tenant",
+            columnList = "tenant_id"))
+public class ServicePackageDailyReportStaging {
+
+  @Id
+  @Column(name = "service_package_daily_report_staging_id", nullable = false)
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private int servicePackageDailyReportStagingId;
+
+  @Column(name = "number_of_used_packages", nullable = false)
+  private int numberOfUsedPackages;
+
+  @Column(name = "date", nullable = false)
+  private LocalDate date;
+
+  @Column(name = "service_package_id", nullable = true)
+  private Integer servicePackageId;
+
+  @Column(name = "tenant_id", nullable = false)
+  private String tenantId;
+}
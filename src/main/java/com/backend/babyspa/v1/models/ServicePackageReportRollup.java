@@ -0,0 +1,54 @@
+package com.backend.babyspa.v1.models;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// mjesecni i godisnji zbirovi service_package_daily_report, odrzavaju se pri svakoj izmjeni
+// dnevnih izvjestaja
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(
+    name = "service_package_report_rollup",
+    indexes =
+        @Index(
+            name = "idx_service_package_report_rollup_tenant_period",
+            columnList = "tenant_id, period, period_start, service_package_id"))
+public class ServicePackageReportRollup {
+
+  @Id
+  @Column(name = "service_package_report_rollup_id", nullable = false)
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private int servicePackageReportRollupId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "period", nullable = false)
+  private ReportSortEnum period;
+
+  @Column(name = "period_start", nullable = false)
+  private LocalDate periodStart;
+
+  @Column(name = "service_package_id", nullable = true)
+  private Integer servicePackageId;
+
+  @Column(name = "number_of_used_packages", nullable = false)
+  private int numberOfUsedPackages;
+
+  @Column(name = "tenant_id", nullable = false)
+  private String tenantId;
+}
@@ -3,16 +3,15 @@ package com.backend.babyspa.v1.models;
 import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
-import org.hibernate.annotations.Filter;
-import org.hibernate.annotations.FilterDef;
-import org.hibernate.annotations.ParamDef;
+import org.hibernate.annotations.TenantId;
 
+// Hibernate sam dodaje uslov tenant_id = trenutni tenant u upite i upisuje tenant kod insert-a
+// (TenantIdentifierResolver)
 @MappedSuperclass
-@FilterDef(name = "tenantFilter", parameters = @ParamDef(name = "tenantId", type = String.class))
-@Filter(name = "tenantFilter", condition = "tenant_id = :tenantId")
 @EntityListeners(TenantListener.class)
 public abstract class TenantEntity {
 
+  @TenantId
   @Column(name = "tenant_id", nullable = false)
   private String tenantId;
 
@@ -2,27 +2,21 @@ package com.backend.babyspa.v1.models;
 
 import com.backend.babyspa.v1.config.TenantContext;
 import jakarta.persistence.PrePersist;
-import jakarta.persistence.PreUpdate;
 import org.springframework.stereotype.Component;
 
-// sluzi kao backup za TenantAspect (U sustini, ako je TenantAspect ne radi, onda se koristi ovaj
-// listener)
+// sesija otvorena bez tenanta (scheduler prije postavljanja tenanta, inicijalni podaci) vidi sve
+// tenante i ne postavlja tenant sama, pa se on ovdje uzima iz TenantContext-a
 @Component
 public class TenantListener {
 
   @PrePersist
   public void setTenantOnCreate(TenantEntity entity) {
-    String tenantId = TenantContext.getTenant();
-    if (tenantId != null && entity.getTenantId() == null) {
-      entity.setTenantId(tenantId);
+    if (entity.getTenantId() == null) {
+      entity.setTenantId(TenantContext.getTenant());
     }
-  }
-
-  @PreUpdate
-  public void setTenantOnUpdate(TenantEntity entity) {
-    String tenantId = TenantContext.getTenant();
-    if (tenantId != null && entity.getTenantId() == null) {
-      entity.setTenantId(tenantId);
+    if (entity.getTenantId() == null) {
+      throw new IllegalStateException(
+          "Tenant nije postavljen za entitet: " + entity.getClass().getSimpleName());
     }
   }
 }
@@ -10,14 +10,12 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.hibernate.annotations.Filter;
 
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Filter(name = "tenantFilter", condition = "tenant_id = :tenantId")
 @Table(name = "application_user")
 public class User extends TenantEntity {
 
@@ -41,6 +39,10 @@ public class User extends TenantEntity {
   @Column(name = "last_name", nullable = false)
   private String lastName;
 
+  // povecava se kod promjene uloga, password-a ili username-a; tokeni sa manjom verzijom se odbijaju
+  @Column(name = "token_version", columnDefinition = "INTEGER NOT NULL DEFAULT 0")
+  private int tokenVersion;
+
   public User(
       String email,
       String username,
@@ -54,6 +56,7 @@ public class User extends TenantEntity {
     this.password = password;
     this.firstName = firstName;
     this.lastName = lastName;
+    setTenantId(tenantId);
   }
 
   @Override
@@ -0,0 +1,12 @@
+package com.backend.babyspa.v1.projections;
+
+import org.springframework.beans.factory.annotation.Value;
+
+public interface CountByIdProjection {
+
+  @Value("#{target.id}")
+  Integer getId();
+
+  @Value("#{target.count}")
+  Long getCount();
+}
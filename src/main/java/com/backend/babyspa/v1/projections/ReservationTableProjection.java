@@ -0,0 +1,62 @@
+package com.backend.babyspa.v1.projections;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+
+public interface ReservationTableProjection {
+
+  @Value("#{target.reservation_id}")
+  Integer getReservationId();
+
+  @Value("#{target.arrangement_id}")
+  Integer getArrangementId();
+
+  @Value("#{target.remaining_term}")
+  Integer getRemainingTerm();
+
+  @Value("#{target.created_at}")
+  LocalDateTime getCreatedAt();
+
+  @Value("#{target.start_date}")
+  LocalDateTime getStartDate();
+
+  @Value("#{target.end_date}")
+  LocalDateTime getEndDate();
+
+  @Value("#{target.note}")
+  String getNote();
+
+  @Value("#{target.sort_bucket}")
+  Integer getSortBucket();
+
+  @Value("#{target.status_id}")
+  Integer getStatusId();
+
+  @Value("#{target.status_name}")
+  String getStatusName();
+
+  @Value("#{target.status_code}")
+  String getStatusCode();
+
+  @Value("#{target.status_type_id}")
+  Integer getStatusTypeId();
+
+  @Value("#{target.status_type_code}")
+  String getStatusTypeCode();
+
+  @Value("#{target.baby_id}")
+  Integer getBabyId();
+
+  @Value("#{target.baby_name}")
+  String getBabyName();
+
+  @Value("#{target.baby_surname}")
+  String getBabySurname();
+
+  @Value("#{target.phone_number}")
+  String getPhoneNumber();
+
+  @Value("#{target.service_package_name}")
+  String getServicePackageName();
+}
@@ -0,0 +1,200 @@
+package com.backend.babyspa.v1.repositories;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.backend.babyspa.v1.models.ArrangementAudOutbox;
+import com.backend.babyspa.v1.models.ArrangementSnapshot;
+import com.backend.babyspa.v1.models.UserActionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// audit zapisi iz outbox tabele se upisuju u arrangement_snapshot i arrangement_aud JDBC batch-om,
+// bez ucitavanja entiteta; data kolona snapshot-a se cita i pise kao JSON tekst
+@Repository
+public class ArrangementAudBatchRepository {
+
+  @Autowired private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  // jedan writer u isto vrijeme na svim instancama, do kraja transakcije
+  public void lockOutbox() {
+    namedParameterJdbcTemplate.query(
+        "SELECT pg_advisory_xact_lock(hashtext('arrangement_aud_outbox'))",
+        new MapSqlParameterSource(),
+        rs -> null);
+  }
+
+  public List<ArrangementAudOutbox> findOutbox(int limit) {
+    return namedParameterJdbcTemplate.query(
+        """
+        SELECT * FROM arrangement_aud_outbox
+        ORDER BY arrangement_aud_outbox_id
+        LIMIT :limit
+        """,
+        new MapSqlParameterSource("limit", limit),
+        (rs, rowNum) ->
+            new ArrangementAudOutbox(
+                rs.getInt("arrangement_aud_outbox_id"),
+                rs.getString("tenant_id"),
+                rs.getInt("arrangement_id"),
+                UserActionType.valueOf(rs.getString("user_action_type")),
+                rs.getObject("action_by_user_id", Integer.class),
+                rs.getObject("action_at", LocalDateTime.class),
+                rs.getInt("remaining_term"),
+                rs.getObject("extend_duration_days", Integer.class),
+                rs.getBigDecimal("price"),
+                rs.getString("note"),
+                rs.getString("discount_info"),
+                rs.getString("baby_info"),
+                rs.getString("status_info"),
+                rs.getString("service_package_info"),
+                rs.getString("payment_type_info"),
+                rs.getString("gift_card_info")));
+  }
+
+  // vraca samo Id-eve koje je ova transakcija obrisala; zapis koji je u medjuvremenu upisao drugi
+  // writer se preskace, pa se nijedan audit ne upisuje dva puta
+  public Set<Integer> deleteOutbox(Collection<Integer> outboxIds) {
+    return new HashSet<>(
+        namedParameterJdbcTemplate.queryForList(
+            """
+            DELETE FROM arrangement_aud_outbox
+            WHERE arrangement_aud_outbox_id IN (:outboxIds)
+            RETURNING arrangement_aud_outbox_id
+            """,
+            new MapSqlParameterSource("outboxIds", outboxIds),
+            Integer.class));
+  }
+
+  // lanac snapshot-a od posljednjeg keyframe-a do posljednje verzije za svaki aranzman
+  public List<ArrangementSnapshot> findLatestChains(Collection<Integer> arrangementIds) {
+    return namedParameterJdbcTemplate.query(
+        """
+        SELECT s.* FROM arrangement_snapshot s
+        WHERE s.arrangement_id IN (:arrangementIds)
+        AND s.version >= (
+            SELECT MAX(k.version) FROM arrangement_snapshot k
+            WHERE k.arrangement_id = s.arrangement_id AND k.keyframe = true)
+        ORDER BY s.arrangement_id, s.version
+        """,
+        new MapSqlParameterSource("arrangementIds", arrangementIds),
+        this::mapArrangementSnapshot);
+  }
+
+  // lanac snapshot-a od posljednjeg keyframe-a prije trazene verzije do te verzije
+  public List<ArrangementSnapshot> findChain(int arrangementId, int version) {
+    return namedParameterJdbcTemplate.query(
+        """
+        SELECT * FROM arrangement_snapshot
+        WHERE arrangement_id = :arrangementId
+        AND version <= :version
+        AND version >= (
+            SELECT MAX(version) FROM arrangement_snapshot
+            WHERE arrangement_id = :arrangementId AND version <= :version AND keyframe = true)
+        ORDER BY version
+        """,
+        new MapSqlParameterSource("arrangementId", arrangementId).addValue("version", version),
+        this::mapArrangementSnapshot);
+  }
+
+  public Integer findLatestVersion(int arrangementId) {
+    return namedParameterJdbcTemplate.queryForObject(
+        "SELECT MAX(version) FROM arrangement_snapshot WHERE arrangement_id = :arrangementId",
+        new MapSqlParameterSource("arrangementId", arrangementId),
+        Integer.class);
+  }
+
+  // generisani Id-evi se upisuju nazad u proslijedjene snapshot-e
+  public void insertSnapshots(List<ArrangementSnapshot> snapshots) {
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    namedParameterJdbcTemplate.batchUpdate(
+        """
+        INSERT INTO arrangement_snapshot (arrangement_id, version, keyframe, data, changed_fields,
+            content_hash)
+        VALUES (:arrangementId, :version, :keyframe, CAST(:data AS jsonb),
+            CAST(:changedFields AS jsonb), :contentHash)
+        """,
+        snapshots.stream().map(this::buildSnapshotParameters).toArray(SqlParameterSource[]::new),
+        keyHolder,
+        new String[] {"arrangement_snapshot_id"});
+
+    List<Map<String, Object>> keys = keyHolder.getKeyList();
+    for (int i = 0; i < snapshots.size(); i++) {
+      Number arrangementSnapshotId = (Number) keys.get(i).get("arrangement_snapshot_id");
+      snapshots.get(i).setArrangementSnapshotId(arrangementSnapshotId.intValue());
+    }
+  }
+
+  public void insertAuds(List<ArrangementAudOutbox> records, List<Integer> snapshotIds) {
+    SqlParameterSource[] audParameters = new SqlParameterSource[records.size()];
+    for (int i = 0; i < records.size(); i++) {
+      ArrangementAudOutbox record = records.get(i);
+      audParameters[i] =
+          new MapSqlParameterSource("tenantId", record.getTenantId())
+              .addValue("arrangementId", record.getArrangementId())
+              .addValue("userActionType", record.getUserActionType().name())
+              .addValue("actionByUserId", record.getActionByUserId())
+              .addValue("actionAt", record.getActionAt())
+              .addValue("arrangementSnapshotId", snapshotIds.get(i));
+    }
+
+    namedParameterJdbcTemplate.batchUpdate(
+        """
+        INSERT INTO arrangement_aud (tenant_id, arrangement_id, user_action_type,
+            action_by_user_id, action_at, arrangement_snapshot_id)
+        VALUES (:tenantId, :arrangementId, :userActionType, :actionByUserId, :actionAt,
+            :arrangementSnapshotId)
+        """,
+        audParameters);
+  }
+
+  private SqlParameterSource buildSnapshotParameters(ArrangementSnapshot snapshot) {
+    try {
+      return new MapSqlParameterSource("arrangementId", snapshot.getArrangementId())
+          .addValue("version", snapshot.getVersion())
+          .addValue("keyframe", snapshot.isKeyframe())
+          .addValue("data", objectMapper.writeValueAsString(snapshot.getData()))
+          .addValue("changedFields", objectMapper.writeValueAsString(snapshot.getChangedFields()))
+          .addValue("contentHash", snapshot.getContentHash());
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private ArrangementSnapshot mapArrangementSnapshot(ResultSet rs, int rowNum)
+      throws SQLException {
+    try {
+      return new ArrangementSnapshot(
+          rs.getInt("arrangement_snapshot_id"),
+          rs.getInt("arrangement_id"),
+          rs.getInt("version"),
+          rs.getBoolean("keyframe"),
+          objectMapper.readValue(rs.getString("data"), new TypeReference<>() {}),
+          Objects.nonNull(rs.getString("changed_fields"))
+              ? objectMapper.readValue(rs.getString("changed_fields"), new TypeReference<>() {})
+              : null,
+          rs.getString("content_hash"));
+    } catch (JsonProcessingException e) {
+      throw new SQLException(e);
+    }
+  }
+
+}
@@ -0,0 +1,10 @@
+package com.backend.babyspa.v1.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.backend.babyspa.v1.models.ArrangementAudOutbox;
+
+@Repository
+public interface ArrangementAudOutboxRepository
+    extends JpaRepository<ArrangementAudOutbox, Integer> {}
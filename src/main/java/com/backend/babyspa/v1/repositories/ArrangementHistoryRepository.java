@@ -0,0 +1,94 @@
+package com.backend.babyspa.v1.repositories;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.backend.babyspa.v1.dtos.ArrangementHistoryDto;
+import com.backend.babyspa.v1.models.UserActionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// audit aranzmana od najnovije akcije, zajedno sa snapshot-om i korisnikom u istom upitu.
+// Stranica se nastavlja iza kursora (action_at, arrangement_aud_id) posljednjeg reda, sto prati
+// indeks idx_arrangement_aud_arrangement_action_at.
+@Repository
+public class ArrangementHistoryRepository {
+
+  @Autowired private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  public List<ArrangementHistoryDto> findHistory(
+      int arrangementId,
+      String tenantId,
+      LocalDateTime cursorActionAt,
+      Integer cursorArrangementAudId,
+      int limit) {
+    MapSqlParameterSource parameters =
+        new MapSqlParameterSource("arrangementId", arrangementId)
+            .addValue("tenantId", tenantId)
+            .addValue("limit", limit);
+
+    StringBuilder sql =
+        new StringBuilder(
+            """
+            SELECT a.arrangement_aud_id, a.action_at, a.user_action_type, a.action_by_user_id,
+                u.first_name, u.last_name, s.version, s.data, s.changed_fields
+            FROM arrangement_aud a
+            JOIN arrangement_snapshot s ON s.arrangement_snapshot_id = a.arrangement_snapshot_id
+            LEFT JOIN application_user u ON u.user_id = a.action_by_user_id
+            WHERE a.arrangement_id = :arrangementId
+            AND a.tenant_id = :tenantId
+            """);
+    if (Objects.nonNull(cursorActionAt)) {
+      sql.append(
+          " AND (a.action_at, a.arrangement_aud_id) < (:cursorActionAt, :cursorArrangementAudId)");
+      parameters
+          .addValue("cursorActionAt", cursorActionAt)
+          .addValue("cursorArrangementAudId", cursorArrangementAudId);
+    }
+    sql.append(" ORDER BY a.action_at DESC, a.arrangement_aud_id DESC LIMIT :limit");
+
+    return namedParameterJdbcTemplate.query(
+        sql.toString(), parameters, this::mapArrangementHistory);
+  }
+
+  private ArrangementHistoryDto mapArrangementHistory(ResultSet rs, int rowNum)
+      throws SQLException {
+    try {
+      Map<String, Object> data =
+          objectMapper.readValue(rs.getString("data"), new TypeReference<>() {});
+      Map<String, Object> changes = new TreeMap<>();
+      if (Objects.nonNull(rs.getString("changed_fields"))) {
+        List<String> changedFields =
+            objectMapper.readValue(rs.getString("changed_fields"), new TypeReference<>() {});
+        changedFields.forEach(field -> changes.put(field, data.get(field)));
+      } else {
+        changes.putAll(data);
+      }
+
+      String firstName = rs.getString("first_name");
+      return new ArrangementHistoryDto(
+          rs.getInt("arrangement_aud_id"),
+          rs.getObject("action_at", LocalDateTime.class),
+          UserActionType.valueOf(rs.getString("user_action_type")),
+          rs.getObject("action_by_user_id", Integer.class),
+          Objects.nonNull(firstName) ? firstName + " " + rs.getString("last_name") : null,
+          rs.getInt("version"),
+          changes);
+    } catch (JsonProcessingException e) {
+      throw new SQLException(e);
+    }
+  }
+}
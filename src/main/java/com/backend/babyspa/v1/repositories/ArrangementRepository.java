@@ -7,10 +7,13 @@ import java.util.List;
 import com.backend.babyspa.v1.models.GiftCard;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.transaction.Transactional;
+
 import com.backend.babyspa.v1.models.Arrangement;
 import com.backend.babyspa.v1.models.Baby;
 import com.backend.babyspa.v1.models.ServicePackage;
@@ -22,6 +25,65 @@ public interface ArrangementRepository
   List<Arrangement> findByRemainingTermGreaterThanAndIsDeleted(
       int remainingTerm, boolean isDeleted);
 
+  List<Arrangement> findByValidUntilBetweenAndRemainingTermGreaterThanAndIsDeletedOrderByValidUntilAsc(
+      LocalDateTime startDate, LocalDateTime endDate, int remainingTerm, boolean isDeleted);
+
+  // popunjava first_reservation_at i valid_until za aranzmane kreirane prije nego sto su kolone
+  // postojale. Poziva se kod svakog pokretanja, pa se citaju samo rezervacije aranzmana bez
+  // first_reservation_at (preko indeksa tenant_id, arrangement_id), a ne sve rezervacije.
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          """
+        UPDATE arrangement a
+        SET first_reservation_at = f.start_date,
+            valid_until = f.start_date
+                + (sp.service_package_duration_days + COALESCE(a.extend_duration_days, 0))
+                * INTERVAL '1 day'
+        FROM (
+            SELECT DISTINCT ON (r.arrangement_id) r.arrangement_id, r.start_date
+            FROM reservation r
+            WHERE r.is_deleted = false
+            AND (r.tenant_id, r.arrangement_id) IN (
+                SELECT tenant_id, arrangement_id FROM arrangement
+                WHERE first_reservation_at IS NULL
+            )
+            ORDER BY r.arrangement_id, r.reservation_id
+        ) f, service_package sp
+        WHERE f.arrangement_id = a.arrangement_id
+        AND sp.service_package_id = a.service_package_id
+        AND a.first_reservation_at IS NULL
+        """,
+      nativeQuery = true)
+  int backfillValidityWindow();
+
+  // uslovni UPDATE: vraca 0 ako je posljednji termin u meduvremenu potrosen
+  @Modifying
+  @Query(
+      value =
+          """
+        UPDATE arrangement
+        SET remaining_term = remaining_term - 1, version = version + 1
+        WHERE arrangement_id = :arrangementId AND tenant_id = :tenantId
+        AND remaining_term > 0
+        """,
+      nativeQuery = true)
+  int decreaseRemainingTerm(
+      @Param("arrangementId") int arrangementId, @Param("tenantId") String tenantId);
+
+  @Modifying
+  @Query(
+      value =
+          """
+        UPDATE arrangement
+        SET remaining_term = remaining_term + 1, version = version + 1
+        WHERE arrangement_id = :arrangementId AND tenant_id = :tenantId
+        """,
+      nativeQuery = true)
+  int increaseRemainingTerm(
+      @Param("arrangementId") int arrangementId, @Param("tenantId") String tenantId);
+
   boolean existsByServicePackageAndIsDeleted(ServicePackage servicePackage, boolean isDeleted);
 
   boolean existsByBabyAndIsDeleted(Baby baby, boolean isDeleted);
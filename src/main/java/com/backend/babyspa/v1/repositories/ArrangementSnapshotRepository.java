@@ -1,9 +1,114 @@
 package com.backend.babyspa.v1.repositories;
 
 import com.backend.babyspa.v1.models.ArrangementSnapshot;
+
+import jakarta.transaction.Transactional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ArrangementSnapshotRepository extends JpaRepository<ArrangementSnapshot, Integer> {
+
+  // snapshot-i iz starog formata (tekstualne kolone po entitetu) se prebacuju u keyframe-ove, a
+  // aud vise nema jedinstven snapshot jer nepromijenjeno stanje dijeli prethodni snapshot
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          """
+        DO $$
+        DECLARE
+            constraint_name TEXT;
+        BEGIN
+            FOR constraint_name IN
+                SELECT c.conname FROM pg_constraint c
+                JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+                WHERE c.conrelid = CAST('arrangement_aud' AS regclass)
+                AND c.contype = 'u'
+                AND a.attname = 'arrangement_snapshot_id'
+            LOOP
+                EXECUTE format('ALTER TABLE arrangement_aud DROP CONSTRAINT %I', constraint_name);
+            END LOOP;
+
+            IF EXISTS (
+                SELECT 1 FROM information_schema.columns
+                WHERE table_name = 'arrangement_snapshot' AND column_name = 'baby_info'
+            ) THEN
+                UPDATE arrangement_snapshot s
+                SET arrangement_id = a.arrangement_id,
+                    version = a.version,
+                    keyframe = true,
+                    data = jsonb_build_object(
+                        'remainingTerm', s.remaining_term,
+                        'extendDurationDays', s.extend_duration_days,
+                        'price', CAST(s.price AS TEXT),
+                        'note', s.note,
+                        'discountInfo', s.discount_info,
+                        'babyInfo', s.baby_info,
+                        'statusInfo', s.status_info,
+                        'servicePackageInfo', s.service_package_info,
+                        'paymentTypeInfo', s.payment_type_info,
+                        'giftCardInfo', s.gift_card_info)
+                FROM (
+                    SELECT arrangement_snapshot_id, arrangement_id,
+                        ROW_NUMBER() OVER (
+                            PARTITION BY arrangement_id ORDER BY action_at, arrangement_aud_id
+                        ) AS version
+                    FROM arrangement_aud
+                ) a
+                WHERE a.arrangement_snapshot_id = s.arrangement_snapshot_id;
+
+                ALTER TABLE arrangement_snapshot
+                    DROP COLUMN remaining_term,
+                    DROP COLUMN extend_duration_days,
+                    DROP COLUMN price,
+                    DROP COLUMN note,
+                    DROP COLUMN discount_info,
+                    DROP COLUMN baby_info,
+                    DROP COLUMN status_info,
+                    DROP COLUMN service_package_info,
+                    DROP COLUMN payment_type_info,
+                    DROP COLUMN gift_card_info;
+            END IF;
+        END $$
+        """,
+      nativeQuery = true)
+  void migrateLegacySnapshots();
+
+  // snapshot-i upisani prije kolone changed_fields se porede sa cijelim stanjem prethodne verzije
+  // (posljednji keyframe prije nje i izmjene nakon njega)
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          """
+        UPDATE arrangement_snapshot s
+        SET changed_fields = COALESCE(
+            (SELECT jsonb_agg(e.key ORDER BY e.key)
+             FROM jsonb_each(s.data) e
+             LEFT JOIN (
+                 SELECT jsonb_object_agg(f.key, f.value) AS state
+                 FROM (
+                     SELECT DISTINCT ON (pe.key) pe.key, pe.value
+                     FROM arrangement_snapshot p, jsonb_each(p.data) pe
+                     WHERE p.arrangement_id = s.arrangement_id
+                     AND p.version < s.version
+                     AND p.version >= (
+                         SELECT MAX(k.version) FROM arrangement_snapshot k
+                         WHERE k.arrangement_id = s.arrangement_id
+                         AND k.version < s.version
+                         AND k.keyframe = true)
+                     ORDER BY pe.key, p.version DESC
+                 ) f
+             ) previous ON true
+             WHERE previous.state IS NULL OR e.value IS DISTINCT FROM previous.state -> e.key),
+            CAST('[]' AS jsonb))
+        WHERE s.changed_fields IS NULL
+        AND s.data IS NOT NULL
+        """,
+      nativeQuery = true)
+  int backfillChangedFields();
 }
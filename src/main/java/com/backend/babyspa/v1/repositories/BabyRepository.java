@@ -37,9 +37,11 @@ public interface BabyRepository
                 (EXTRACT(YEAR FROM AGE(CAST(:now AS TIMESTAMP), birth_date)) * 12) +
                 EXTRACT(MONTH FROM AGE(CAST(:now AS TIMESTAMP), birth_date)) +
                 (CASE WHEN EXTRACT(DAY FROM AGE(CAST(:now AS TIMESTAMP), birth_date)) > 2 THEN 1 ELSE 0 END)
-            WHERE birth_date IS NOT NULL AND is_deleted = :isDeleted
+            WHERE birth_date IS NOT NULL AND is_deleted = :isDeleted AND tenant_id = :tenantId
             """,
       nativeQuery = true)
   void updateAllNumberOfMonths(
-      @Param("now") LocalDateTime now, @Param("isDeleted") boolean isDeleted);
+      @Param("now") LocalDateTime now,
+      @Param("isDeleted") boolean isDeleted,
+      @Param("tenantId") String tenantId);
 }
@@ -22,39 +22,53 @@ public interface GiftCardRepository extends JpaRepository<GiftCard, Integer> {
 
     List<GiftCard> findByUsed(boolean isUsed);
 
+    // jedan red po kartici (posljednji aktivni aranzman), inace bi se kartica ponavljala i
+    // kursor po gift_card_id bi preskakao ili ponavljao redove
     @Query(value = """
             SELECT gc.*, a.arrangement_id, b.phone_number
             FROM gift_card gc
-            LEFT JOIN arrangement a ON gc.gift_card_id = a.gift_card_id
+            LEFT JOIN LATERAL (
+                SELECT arrangement_id, baby_id
+                FROM arrangement
+                WHERE gift_card_id = gc.gift_card_id
+                AND tenant_id = gc.tenant_id
+                AND is_deleted = false
+                ORDER BY arrangement_id DESC
+                LIMIT 1
+            ) a ON true
             LEFT JOIN baby b ON a.baby_id = b.baby_id
             WHERE (:giftCardId IS NULL OR gc.gift_card_id = :giftCardId)
             AND (:serialNumber IS NULL
                        OR LOWER(serial_number) LIKE LOWER(CONCAT('%', :serialNumber, '%')))
             AND (:isUsed IS NULL OR gc.used = :isUsed)
+            AND (CAST(:startDate AS TIMESTAMP) IS NULL OR gc.expiration_date >= CAST(:startDate AS TIMESTAMP))
+            AND (CAST(:endDate AS TIMESTAMP) IS NULL OR gc.expiration_date <= CAST(:endDate AS TIMESTAMP))
+            AND (CAST(:cursorGiftCardId AS INTEGER) IS NULL OR gc.gift_card_id < CAST(:cursorGiftCardId AS INTEGER))
             AND (gc.tenant_id = :tenantId)
             ORDER BY gc.gift_card_id DESC
+            LIMIT :limit OFFSET :offset
             """, nativeQuery = true)
-    List<FindAllGiftCardDto> findAllGiftCardNative(
+    List<FindAllGiftCardDto> findAllGiftCardPageNative(
             @Param("serialNumber") String serialNumber,
             @Param("isUsed") Boolean isUsed, @Param("giftCardId") Integer giftCardId,
-            @Param("tenantId") String tenantId);
+            @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate,
+            @Param("tenantId") String tenantId, @Param("cursorGiftCardId") Integer cursorGiftCardId,
+            @Param("limit") int limit, @Param("offset") long offset);
 
     @Query(value = """
-            SELECT gc.*, a.arrangement_id, b.phone_number
+            SELECT COUNT(*)
             FROM gift_card gc
-            LEFT JOIN arrangement a ON gc.gift_card_id = a.gift_card_id
-            LEFT JOIN baby b ON a.baby_id = b.baby_id
             WHERE (:giftCardId IS NULL OR gc.gift_card_id = :giftCardId)
             AND (:serialNumber IS NULL
                        OR LOWER(serial_number) LIKE LOWER(CONCAT('%', :serialNumber, '%')))
             AND (:isUsed IS NULL OR gc.used = :isUsed)
-            AND (gc.expiration_date >= :startDate AND gc.expiration_date <= :endDate)
+            AND (CAST(:startDate AS TIMESTAMP) IS NULL OR gc.expiration_date >= CAST(:startDate AS TIMESTAMP))
+            AND (CAST(:endDate AS TIMESTAMP) IS NULL OR gc.expiration_date <= CAST(:endDate AS TIMESTAMP))
             AND (gc.tenant_id = :tenantId)
-            ORDER BY gc.gift_card_id DESC
             """, nativeQuery = true)
-    List<FindAllGiftCardDto> findAllGiftCardNativeWithStartDateAndDate(
+    long countAllGiftCardNative(
             @Param("serialNumber") String serialNumber,
-            @Param("isUsed") Boolean isUsed, @Param("giftCardId") Integer giftCardId, @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate,
+            @Param("isUsed") Boolean isUsed, @Param("giftCardId") Integer giftCardId,
+            @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate,
             @Param("tenantId") String tenantId);
 }
@@ -0,0 +1,56 @@
+package com.backend.babyspa.v1.repositories;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.backend.babyspa.v1.models.ReportDirtyDate;
+import com.backend.babyspa.v1.projections.LocalDateProjection;
+
+@Repository
+public interface ReportDirtyDateRepository extends JpaRepository<ReportDirtyDate, Integer> {
+
+  @Modifying
+  @Query(
+      value =
+          """
+			INSERT INTO report_dirty_date (date, tenant_id, marked_at)
+			VALUES (:date, :tenantId, clock_timestamp())
+			ON CONFLICT (tenant_id, date) DO UPDATE SET marked_at = clock_timestamp()
+			""",
+      nativeQuery = true)
+  void markDirty(@Param("date") LocalDate date, @Param("tenantId") String tenantId);
+
+  @Query(
+      value =
+          """
+			SELECT date FROM report_dirty_date
+			WHERE tenant_id = :tenantId AND date <= :maxDate
+			ORDER BY date
+			""",
+      nativeQuery = true)
+  List<LocalDateProjection> findDirtyDates(
+      @Param("tenantId") String tenantId, @Param("maxDate") LocalDate maxDate);
+
+  @Query(value = "SELECT CAST(now() AS TIMESTAMP)", nativeQuery = true)
+  LocalDateTime findTransactionTimestamp();
+
+  @Modifying
+  @Query(
+      value =
+          """
+			DELETE FROM report_dirty_date
+			WHERE tenant_id = :tenantId AND date IN (:dates) AND marked_at <= :markedBefore
+			""",
+      nativeQuery = true)
+  int deleteDirtyDates(
+      @Param("tenantId") String tenantId,
+      @Param("dates") List<LocalDate> dates,
+      @Param("markedBefore") LocalDateTime markedBefore);
+}
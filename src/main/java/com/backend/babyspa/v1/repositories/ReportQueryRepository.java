@@ -0,0 +1,382 @@
+package com.backend.babyspa.v1.repositories;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.backend.babyspa.v1.dtos.ReportDailyValueDto;
+import com.backend.babyspa.v1.dtos.ReportSeriesDto;
+import com.backend.babyspa.v1.exceptions.BusinessException;
+import com.backend.babyspa.v1.models.ReportSortEnum;
+import com.backend.babyspa.v1.utils.DateTimeUtil;
+
+// jedan upit za sve izvjestaje i sve granularnosti: periodi se racunaju sa DATE_TRUNC, a gdje
+// postoje mjesecni i godisnji zbirovi, cijeli periodi se citaju iz njih i samo rubni iz dnevne
+// tabele
+@Repository
+public class ReportQueryRepository {
+
+  public enum ReportSource {
+    reservation(
+        "reservation_daily_report",
+        "reservation_report_rollup",
+        "number_of_reservation",
+        List.of("status_id", "baby_id"),
+        "status_id",
+        "status",
+        "status_code"),
+    servicePackage(
+        "service_package_daily_report",
+        "service_package_report_rollup",
+        "number_of_used_packages",
+        List.of("service_package_id"),
+        "service_package_id",
+        "service_package",
+        "service_package_name");
+
+    private final String dailyTable;
+    private final String rollupTable;
+    private final String valueColumn;
+    private final List<String> filterColumns;
+    // kolona po kojoj se izvjestaj dijeli u serije i tabela iz koje se cita naziv serije
+    private final String seriesColumn;
+    private final String seriesTable;
+    private final String seriesLabelColumn;
+
+    ReportSource(
+        String dailyTable,
+        String rollupTable,
+        String valueColumn,
+        List<String> filterColumns,
+        String seriesColumn,
+        String seriesTable,
+        String seriesLabelColumn) {
+      this.dailyTable = dailyTable;
+      this.rollupTable = rollupTable;
+      this.valueColumn = valueColumn;
+      this.filterColumns = filterColumns;
+      this.seriesColumn = seriesColumn;
+      this.seriesTable = seriesTable;
+      this.seriesLabelColumn = seriesLabelColumn;
+    }
+  }
+
+  private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+  @Autowired private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+  // filteri sa null vrijednoscu se ne dodaju u upit; ako startDate ili endDate nije zadan, raspon
+  // je otvoren na toj strani i izvjestaj pocinje, odnosno zavrsava, prvim periodom sa podacima
+  public <T> List<T> findAll(
+      Class<T> projectionType,
+      ReportSource source,
+      String groupDataType,
+      Map<String, Integer> filters,
+      LocalDate startDate,
+      LocalDate endDate,
+      String tenantId) {
+    ReportSortEnum granularity = getGranularity(groupDataType);
+    MapSqlParameterSource parameters = new MapSqlParameterSource("tenantId", tenantId);
+
+    String sql =
+        "SELECT p.period_start, SUM(p.value) AS value FROM "
+            + buildPeriodRows(source, granularity, filters, startDate, endDate, parameters)
+            + " GROUP BY p.period_start";
+
+    Map<LocalDate, Integer> valuesByPeriod = new HashMap<>();
+    namedParameterJdbcTemplate.query(
+        sql,
+        parameters,
+        rs -> {
+          valuesByPeriod.put(rs.getObject("period_start", LocalDate.class), rs.getInt("value"));
+        });
+
+    List<LocalDate> periodStarts =
+        getPeriodStarts(valuesByPeriod, granularity, startDate, endDate);
+    int[] values =
+        periodStarts.stream().mapToInt(period -> valuesByPeriod.getOrDefault(period, 0)).toArray();
+
+    return toProjections(projectionType, source, granularity, periodStarts, values);
+  }
+
+  // isti periodi kao findAll, ali podijeljeni po seriji (status ili paket usluga) i vraceni kao
+  // kolone: jedna lista datuma i po jedan niz vrijednosti za svaku seriju koja ima podataka
+  public ReportSeriesDto findSeries(
+      ReportSource source,
+      String groupDataType,
+      Map<String, Integer> filters,
+      LocalDate startDate,
+      LocalDate endDate,
+      String tenantId) {
+    ReportSortEnum granularity = getGranularity(groupDataType);
+    MapSqlParameterSource parameters = new MapSqlParameterSource("tenantId", tenantId);
+
+    String sql =
+        "SELECT p.period_start, COALESCE(CAST(s."
+            + source.seriesLabelColumn
+            + " AS VARCHAR), CAST(p.series_id AS VARCHAR), '-') AS series, SUM(p.value) AS value"
+            + " FROM "
+            + buildPeriodRows(source, granularity, filters, startDate, endDate, parameters)
+            + " LEFT JOIN "
+            + source.seriesTable
+            + " s ON s."
+            + source.seriesColumn
+            + " = p.series_id GROUP BY p.period_start, p.series_id, s."
+            + source.seriesLabelColumn;
+
+    Map<String, Map<LocalDate, Integer>> valuesBySeries = new TreeMap<>();
+    Map<LocalDate, Integer> totalsByPeriod = new HashMap<>();
+    namedParameterJdbcTemplate.query(
+        sql,
+        parameters,
+        rs -> {
+          LocalDate periodStart = rs.getObject("period_start", LocalDate.class);
+          int value = rs.getInt("value");
+          valuesBySeries
+              .computeIfAbsent(rs.getString("series"), key -> new HashMap<>())
+              .merge(periodStart, value, Integer::sum);
+          totalsByPeriod.merge(periodStart, value, Integer::sum);
+        });
+
+    List<LocalDate> periodStarts =
+        getPeriodStarts(totalsByPeriod, granularity, startDate, endDate);
+    Map<String, int[]> series = new TreeMap<>();
+    valuesBySeries.forEach(
+        (key, valuesByPeriod) -> {
+          int[] values =
+              periodStarts.stream()
+                  .mapToInt(period -> valuesByPeriod.getOrDefault(period, 0))
+                  .toArray();
+          if (Arrays.stream(values).anyMatch(value -> value != 0)) {
+            series.put(key, values);
+          }
+        });
+
+    return toSeries(granularity, periodStarts, series);
+  }
+
+  // dnevne vrijednosti po seriji, za sve datume ili samo za zadane datume
+  public List<ReportDailyValueDto> findDailyValues(
+      ReportSource source, Collection<LocalDate> dates, String tenantId) {
+    MapSqlParameterSource parameters = new MapSqlParameterSource("tenantId", tenantId);
+    String dateCondition = "";
+    if (Objects.nonNull(dates)) {
+      parameters.addValue("dates", dates);
+      dateCondition = " AND d.date IN (:dates)";
+    }
+
+    String sql =
+        "SELECT d.date, d."
+            + source.seriesColumn
+            + " AS series_id, COALESCE(CAST(s."
+            + source.seriesLabelColumn
+            + " AS VARCHAR), CAST(d."
+            + source.seriesColumn
+            + " AS VARCHAR), '-') AS series, SUM(d."
+            + source.valueColumn
+            + ") AS value FROM "
+            + source.dailyTable
+            + " d LEFT JOIN "
+            + source.seriesTable
+            + " s ON s."
+            + source.seriesColumn
+            + " = d."
+            + source.seriesColumn
+            + " WHERE d.tenant_id = :tenantId"
+            + dateCondition
+            + " GROUP BY d.date, d."
+            + source.seriesColumn
+            + ", s."
+            + source.seriesLabelColumn;
+
+    return namedParameterJdbcTemplate.query(
+        sql,
+        parameters,
+        (rs, rowNum) ->
+            new ReportDailyValueDto(
+                rs.getObject("date", LocalDate.class),
+                rs.getInt("series_id"),
+                rs.getString("series"),
+                rs.getInt("value")));
+  }
+
+  public <T> List<T> toProjections(
+      Class<T> projectionType,
+      ReportSource source,
+      ReportSortEnum granularity,
+      List<LocalDate> periodStarts,
+      int[] values) {
+    List<T> projections = new ArrayList<>(periodStarts.size());
+    for (int i = 0; i < periodStarts.size(); i++) {
+      Map<String, Object> row = new HashMap<>();
+      row.put("date", DateTimeUtil.formatPeriod(periodStarts.get(i), granularity));
+      row.put(source.valueColumn, values[i]);
+      projections.add(projectionFactory.createProjection(projectionType, row));
+    }
+    return projections;
+  }
+
+  public ReportSeriesDto toSeries(
+      ReportSortEnum granularity, List<LocalDate> periodStarts, Map<String, int[]> series) {
+    return new ReportSeriesDto(
+        periodStarts.stream()
+            .map(periodStart -> DateTimeUtil.formatPeriod(periodStart, granularity))
+            .toList(),
+        series);
+  }
+
+  public ReportSortEnum getGranularity(String groupDataType) {
+    try {
+      return ReportSortEnum.valueOf(groupDataType);
+    } catch (IllegalArgumentException | NullPointerException e) {
+      throw new BusinessException("Nepoznat tip grupisanja izvještaja: " + groupDataType + "!");
+    }
+  }
+
+  private List<LocalDate> getPeriodStarts(
+      Map<LocalDate, Integer> valuesByPeriod,
+      ReportSortEnum granularity,
+      LocalDate startDate,
+      LocalDate endDate) {
+    List<LocalDate> periodsWithData =
+        valuesByPeriod.entrySet().stream()
+            .filter(entry -> entry.getValue() != 0)
+            .map(Map.Entry::getKey)
+            .sorted()
+            .toList();
+
+    return DateTimeUtil.getReportPeriodStarts(
+        startDate,
+        endDate,
+        periodsWithData.isEmpty() ? null : periodsWithData.get(0),
+        periodsWithData.isEmpty() ? null : periodsWithData.get(periodsWithData.size() - 1),
+        granularity);
+  }
+
+  // vraca "(SELECT period_start, series_id, value ...) p" za zadani izvjestaj, granularnost,
+  // filtere i raspon, i dodaje potrebne parametre
+  private String buildPeriodRows(
+      ReportSource source,
+      ReportSortEnum granularity,
+      Map<String, Integer> filters,
+      LocalDate startDate,
+      LocalDate endDate,
+      MapSqlParameterSource parameters) {
+    StringBuilder filterCondition = new StringBuilder("tenant_id = :tenantId");
+    filters.forEach(
+        (column, value) -> {
+          if (!source.filterColumns.contains(column)) {
+            throw new IllegalArgumentException("Nepoznat filter izvještaja: " + column + "!");
+          }
+          if (Objects.nonNull(value)) {
+            filterCondition.append(" AND ").append(column).append(" = :").append(column);
+            parameters.addValue(column, value);
+          }
+        });
+
+    ReportSortEnum rollupPeriod = getRollupPeriod(granularity);
+    String periodStart =
+        "CAST(DATE_TRUNC('" + granularity.name() + "', CAST(%s AS TIMESTAMP)) AS DATE)";
+    List<String> parts = new ArrayList<>();
+
+    StringBuilder dateCondition = new StringBuilder();
+    if (Objects.nonNull(startDate)) {
+      parameters.addValue("startDate", startDate);
+      dateCondition.append(" AND date >= :startDate");
+    }
+    if (Objects.nonNull(endDate)) {
+      parameters.addValue("endDate", endDate);
+      dateCondition.append(" AND date <= :endDate");
+    }
+
+    if (Objects.isNull(rollupPeriod)) {
+      parts.add(dailyPart(source, periodStart, filterCondition, dateCondition.toString()));
+    } else if (Objects.isNull(startDate) && Objects.isNull(endDate)) {
+      parts.add(rollupPart(source, rollupPeriod, periodStart, filterCondition, ""));
+    } else {
+      // cijeli periodi unutar raspona iz zbirova, rubni dani iz dnevne tabele
+      StringBuilder periodCondition = new StringBuilder();
+      List<String> edgeConditions = new ArrayList<>();
+      if (Objects.nonNull(startDate)) {
+        parameters.addValue(
+            "fullPeriodStart", DateTimeUtil.getFirstFullPeriodStart(startDate, rollupPeriod));
+        periodCondition.append(" AND period_start >= :fullPeriodStart");
+        edgeConditions.add("date < :fullPeriodStart");
+      }
+      if (Objects.nonNull(endDate)) {
+        parameters.addValue(
+            "fullPeriodEnd", DateTimeUtil.getLastFullPeriodEnd(endDate, rollupPeriod));
+        periodCondition.append(" AND period_start < :fullPeriodEnd");
+        edgeConditions.add("date >= :fullPeriodEnd");
+      }
+      parts.add(
+          rollupPart(
+              source, rollupPeriod, periodStart, filterCondition, periodCondition.toString()));
+      dateCondition.append(" AND (").append(String.join(" OR ", edgeConditions)).append(")");
+      parts.add(dailyPart(source, periodStart, filterCondition, dateCondition.toString()));
+    }
+
+    return "(" + String.join(" UNION ALL ", parts) + ") p";
+  }
+
+  private String rollupPart(
+      ReportSource source,
+      ReportSortEnum rollupPeriod,
+      String periodStart,
+      CharSequence filterCondition,
+      String periodCondition) {
+    return "SELECT "
+        + periodStart.formatted("period_start")
+        + " AS period_start, "
+        + source.seriesColumn
+        + " AS series_id, "
+        + source.valueColumn
+        + " AS value FROM "
+        + source.rollupTable
+        + " WHERE period = '"
+        + rollupPeriod.name()
+        + "' AND "
+        + filterCondition
+        + periodCondition;
+  }
+
+  private String dailyPart(
+      ReportSource source,
+      String periodStart,
+      CharSequence filterCondition,
+      String dateCondition) {
+    return "SELECT "
+        + periodStart.formatted("date")
+        + " AS period_start, "
+        + source.seriesColumn
+        + " AS series_id, "
+        + source.valueColumn
+        + " AS value FROM "
+        + source.dailyTable
+        + " WHERE "
+        + filterCondition
+        + dateCondition;
+  }
+
+  // zbirovi postoje samo za mjesec i godinu; kvartal se sabira iz mjesecnih zbirova
+  private ReportSortEnum getRollupPeriod(ReportSortEnum granularity) {
+    return switch (granularity) {
+      case day, week -> null;
+      case month, quarter -> ReportSortEnum.month;
+      case year -> ReportSortEnum.year;
+    };
+  }
+}
@@ -0,0 +1,19 @@
+package com.backend.babyspa.v1.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.backend.babyspa.v1.models.ReportWatermark;
+
+@Repository
+public interface ReportWatermarkRepository extends JpaRepository<ReportWatermark, String> {
+
+  // lock vazi do kraja transakcije i ceka dok ga drugo generisanje za isti tenant ne pusti
+  @Query(
+      value =
+          "SELECT 1 FROM pg_advisory_xact_lock(hashtext(CONCAT('report_generation:', :tenantId)))",
+      nativeQuery = true)
+  int lockGeneration(@Param("tenantId") String tenantId);
+}
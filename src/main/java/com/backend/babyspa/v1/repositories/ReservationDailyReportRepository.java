@@ -1,16 +1,17 @@
 package com.backend.babyspa.v1.repositories;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.backend.babyspa.v1.models.ReservationDailyReport;
 import com.backend.babyspa.v1.models.Status;
-import com.backend.babyspa.v1.projections.ReservationDailyReportProjection;
 
 @Repository
 public interface ReservationDailyReportRepository
@@ -18,149 +19,149 @@ public interface ReservationDailyReportRepository
 
   List<ReservationDailyReport> findByStatus(Status status);
 
-  boolean existsByDate(LocalDate date);
+  @Modifying
+  @Query(value = "DELETE FROM reservation_daily_report WHERE tenant_id = :tenantId", nativeQuery = true)
+  int deleteAllByTenantId(@Param("tenantId") String tenantId);
 
-  void deleteByDate(LocalDate date);
-
-  void deleteAll();
+  @Modifying
+  @Query(
+      value = "DELETE FROM reservation_daily_report WHERE tenant_id = :tenantId AND date = :date",
+      nativeQuery = true)
+  int deleteByDateAndTenantId(@Param("date") LocalDate date, @Param("tenantId") String tenantId);
 
+  @Modifying
   @Query(
       value =
           """
+			INSERT INTO reservation_daily_report
+			    (number_of_reservation, date, baby_id, status_id, tenant_id)
 			SELECT
-			    TO_CHAR(date, 'DD.MM.YYYY.') AS date,
-			    SUM(number_of_reservation) AS number_of_reservation
+			    COUNT(r.reservation_id), :date, a.baby_id, r.status_id, :tenantId
 			FROM
-			    reservation_daily_report
+			    reservation r
+			JOIN arrangement a ON r.arrangement_id = a.arrangement_id
+			JOIN status s ON r.status_id = s.status_id
+			JOIN status_type st ON s.status_type_id = st.status_type_id
 			WHERE
-			    (:statusId IS NULL OR status_id = :statusId) AND (:babyId IS NULL OR baby_id = :babyId)
-			AND (tenant_id = :tenantId)
+			    r.start_date >= :dayStart AND r.start_date < :nextDayStart
+			AND st.status_type_code = :statusTypeCode
+			AND r.tenant_id = :tenantId AND r.is_deleted = :isDeleted
 			GROUP BY
-			    date
-			ORDER BY
-			    MIN(date) ASC
+			    a.baby_id, r.status_id
 			""",
       nativeQuery = true)
-  List<ReservationDailyReportProjection> findAllByStatusIdAndBabyId(
-      @Param("statusId") Integer statusId,
-      @Param("babyId") Integer babyId,
-      @Param("tenantId") String tenantId);
+  int insertDailyReportForDate(
+      @Param("date") LocalDate date,
+      @Param("dayStart") LocalDateTime dayStart,
+      @Param("nextDayStart") LocalDateTime nextDayStart,
+      @Param("statusTypeCode") String statusTypeCode,
+      @Param("tenantId") String tenantId,
+      @Param("isDeleted") boolean isDeleted);
 
+  @Modifying
   @Query(
       value =
           """
+			INSERT INTO reservation_daily_report_staging
+			    (number_of_reservation, date, baby_id, status_id, tenant_id)
 			SELECT
-			    TO_CHAR(date, 'DD.MM.YYYY.') AS date,
-			    SUM(number_of_reservation) AS number_of_reservation
+			    COUNT(r.reservation_id), CAST(r.start_date AS DATE), a.baby_id, r.status_id, :tenantId
 			FROM
-			    reservation_daily_report
+			    reservation r
+			JOIN arrangement a ON r.arrangement_id = a.arrangement_id
+			JOIN status s ON r.status_id = s.status_id
+			JOIN status_type st ON s.status_type_id = st.status_type_id
 			WHERE
-			    (:statusId IS NULL OR status_id = :statusId) AND (:babyId IS NULL OR baby_id = :babyId)
-			AND (date >= :startDate AND date <= :endDate) AND (tenant_id = :tenantId)
+			    r.start_date >= :rangeStart AND r.start_date < :rangeEnd
+			AND st.status_type_code = :statusTypeCode
+			AND r.tenant_id = :tenantId AND r.is_deleted = :isDeleted
 			GROUP BY
-			    date
-			ORDER BY
-			    MIN(date) ASC
+			    CAST(r.start_date AS DATE), a.baby_id, r.status_id
 			""",
       nativeQuery = true)
-  List<ReservationDailyReportProjection> findAllByStatusIdAndBabyIdAndStartDateAndEndDate(
-      @Param("statusId") Integer statusId,
-      @Param("babyId") Integer babyId,
-      @Param("startDate") LocalDate startDate,
-      @Param("endDate") LocalDate endDate,
-      @Param("tenantId") String tenantId);
+  int insertStagingForRange(
+      @Param("rangeStart") LocalDateTime rangeStart,
+      @Param("rangeEnd") LocalDateTime rangeEnd,
+      @Param("statusTypeCode") String statusTypeCode,
+      @Param("tenantId") String tenantId,
+      @Param("isDeleted") boolean isDeleted);
 
+  @Modifying
   @Query(
       value =
           """
+			INSERT INTO reservation_daily_report
+			    (number_of_reservation, date, baby_id, status_id, tenant_id)
 			SELECT
-				TO_CHAR(date, 'Month YYYY') AS date,
-				SUM(number_of_reservation) AS number_of_reservation
+			    number_of_reservation, date, baby_id, status_id, tenant_id
 			FROM
-				reservation_daily_report
+			    reservation_daily_report_staging
 			WHERE
-				(:statusId IS NULL OR status_id = :statusId)
-			AND (:babyId IS NULL OR baby_id = :babyId) AND (tenant_id = :tenantId)
-			GROUP BY
-				TO_CHAR(date, 'Month YYYY')
-			ORDER BY
-			 	MIN(date) ASC;
+			    tenant_id = :tenantId
 			""",
       nativeQuery = true)
-  List<ReservationDailyReportProjection> findAllByStatusIdAndBabyIdGroupByMonth(
-      @Param("statusId") Integer statusId,
-      @Param("babyId") Integer babyId,
-      @Param("tenantId") String tenantId);
+  int publishStaging(@Param("tenantId") String tenantId);
+
+  @Modifying
+  @Query(
+      value = "DELETE FROM reservation_daily_report_staging WHERE tenant_id = :tenantId",
+      nativeQuery = true)
+  int deleteStagingByTenantId(@Param("tenantId") String tenantId);
+
+  @Modifying
+  @Query(
+      value = "DELETE FROM reservation_report_rollup WHERE tenant_id = :tenantId",
+      nativeQuery = true)
+  int deleteRollupsByTenantId(@Param("tenantId") String tenantId);
 
   @Query(
       value =
           """
 			SELECT
-			    TO_CHAR(date, 'Month YYYY') AS date,
-			    SUM(number_of_reservation) AS number_of_reservation
-			FROM
-			    reservation_daily_report
-			WHERE
-			    (:statusId IS NULL OR status_id = :statusId) AND (:babyId IS NULL OR baby_id = :babyId)
-			AND (date >= :startDate AND date <= :endDate) AND (tenant_id = :tenantId)
-			GROUP BY
-				TO_CHAR(date, 'Month YYYY')
-			ORDER BY
-			    MIN(date) ASC
+			    EXISTS (SELECT 1 FROM reservation_daily_report WHERE tenant_id = :tenantId)
+			    AND NOT EXISTS (SELECT 1 FROM reservation_report_rollup WHERE tenant_id = :tenantId)
 			""",
       nativeQuery = true)
-  List<ReservationDailyReportProjection>
-      findAllByStatusIdAndBabyIdAndStartDateAndEndDateGroupByMonth(
-          @Param("statusId") Integer statusId,
-          @Param("babyId") Integer babyId,
-          @Param("startDate") LocalDate startDate,
-          @Param("endDate") LocalDate endDate,
-          @Param("tenantId") String tenantId);
+  boolean isMissingRollups(@Param("tenantId") String tenantId);
 
+  @Modifying
   @Query(
       value =
           """
-			SELECT
-				TO_CHAR(date, 'YYYY') AS date,
-				SUM(number_of_reservation) AS number_of_reservation
-			FROM
-				reservation_daily_report
-			WHERE
-				(:statusId IS NULL OR status_id = :statusId)
-			AND (:babyId IS NULL OR baby_id = :babyId) AND (tenant_id = :tenantId)
-			GROUP BY
-				TO_CHAR(date, 'YYYY')
-			ORDER BY
-			 	MIN(date) ASC;
+			DELETE FROM reservation_report_rollup
+			WHERE tenant_id = :tenantId AND period = :period AND period_start = :periodStart
 			""",
       nativeQuery = true)
-  List<ReservationDailyReportProjection> findAllByStatusIdAndBabyIdGroupByYear(
-      @Param("statusId") Integer statusId,
-      @Param("babyId") Integer babyId,
+  int deleteRollupsForPeriod(
+      @Param("period") String period,
+      @Param("periodStart") LocalDate periodStart,
       @Param("tenantId") String tenantId);
 
+  // bez raspona se racunaju zbirovi za sve periode tenanta
+  @Modifying
   @Query(
       value =
           """
+			INSERT INTO reservation_report_rollup
+			    (period, period_start, status_id, baby_id, number_of_reservation, tenant_id)
 			SELECT
-			    TO_CHAR(date, 'YYYY') AS date,
-			    SUM(number_of_reservation) AS number_of_reservation
-			FROM
-			    reservation_daily_report
-			WHERE
-			    (:statusId IS NULL OR status_id = :statusId) AND (:babyId IS NULL OR baby_id = :babyId)
-			AND (date >= :startDate AND date <= :endDate) AND (tenant_id = :tenantId)
+			    :period, d.period_start, d.status_id, d.baby_id, SUM(d.number_of_reservation), :tenantId
+			FROM (
+			    SELECT
+			        CAST(DATE_TRUNC(:period, CAST(date AS TIMESTAMP)) AS DATE) AS period_start,
+			        status_id, baby_id, number_of_reservation
+			    FROM reservation_daily_report
+			    WHERE tenant_id = :tenantId
+			    AND (CAST(:rangeStart AS DATE) IS NULL OR date >= :rangeStart)
+			    AND (CAST(:rangeEnd AS DATE) IS NULL OR date < :rangeEnd)
+			) d
 			GROUP BY
-				TO_CHAR(date, 'YYYY')
-			ORDER BY
-			    MIN(date) ASC
+			    d.period_start, d.status_id, d.baby_id
 			""",
       nativeQuery = true)
-  List<ReservationDailyReportProjection>
-      findAllByStatusIdAndBabyIdAndStartDateAndEndDateGroupByYear(
-          @Param("statusId") Integer statusId,
-          @Param("babyId") Integer babyId,
-          @Param("startDate") LocalDate startDate,
-          @Param("endDate") LocalDate endDate,
-          @Param("tenantId") String tenantId);
+  int insertRollups(
+      @Param("period") String period,
+      @Param("rangeStart") LocalDate rangeStart,
+      @Param("rangeEnd") LocalDate rangeEnd,
+      @Param("tenantId") String tenantId);
 }
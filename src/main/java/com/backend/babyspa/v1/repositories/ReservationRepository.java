@@ -1,6 +1,5 @@
 package com.backend.babyspa.v1.repositories;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -12,7 +11,9 @@ import org.springframework.stereotype.Repository;
 
 import com.backend.babyspa.v1.models.Arrangement;
 import com.backend.babyspa.v1.models.Reservation;
+import com.backend.babyspa.v1.projections.CountByIdProjection;
 import com.backend.babyspa.v1.projections.LocalDateProjection;
+import com.backend.babyspa.v1.projections.ReservationTableProjection;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Integer> {
@@ -28,144 +29,173 @@ public interface ReservationRepository extends JpaRepository<Reservation, Intege
       value =
           """
             SELECT * FROM reservation r
-            WHERE DATE(r.start_date) = :dayBefore
+            WHERE r.start_date >= :dayStart AND r.start_date < :nextDayStart
             AND r.status_id = :statusId AND r.is_deleted = :isDeleted
+            AND r.tenant_id = :tenantId
             """,
       nativeQuery = true)
   List<Reservation> findByStartDateAndStatusCode(
-      LocalDateTime dayBefore, int statusId, boolean isDeleted);
+      @Param("dayStart") LocalDateTime dayStart,
+      @Param("nextDayStart") LocalDateTime nextDayStart,
+      @Param("statusId") int statusId,
+      @Param("isDeleted") boolean isDeleted,
+      @Param("tenantId") String tenantId);
 
   @Query(
       value =
           """
             SELECT COUNT(r) FROM reservation r
-            WHERE DATE(r.start_date) = :currentDate
+            WHERE r.start_date >= :dayStart AND r.start_date < :nextDayStart
             AND r.status_id = :statusId AND r.is_deleted = :isDeleted
             """,
       nativeQuery = true)
   int countReservationByStartDateAndStatusId(
-      @Param("currentDate") LocalDate currentDate,
+      @Param("dayStart") LocalDateTime dayStart,
+      @Param("nextDayStart") LocalDateTime nextDayStart,
       @Param("statusId") int statusId,
       @Param("isDeleted") boolean isDeleted);
 
   @Query(
       value =
           """
-            SELECT
-            COUNT(r) AS reservation_count,
-            a.baby_id
-            FROM
-            reservation r
-            JOIN
-            arrangement a ON r.arrangement_id = a.arrangement_id
-            WHERE
-            DATE(r.start_date) = :currentDate AND r.status_id = :statusId
-            AND r.tenant_id = :tenantId AND r.is_deleted = :isDeleted
-            GROUP BY
-             a.baby_id;
+            SELECT DISTINCT DATE(start_date) FROM reservation
+             WHERE start_date < :currentDateTime
+             AND tenant_id = :tenantId AND is_deleted = :isDeleted
             """,
       nativeQuery = true)
-  List<Object[]> countReservationPerBabyAndStatus(
-      @Param("currentDate") LocalDate currentDate,
-      @Param("statusId") int statusId,
+  List<LocalDateProjection> findDistinctReservationDates(
+      @Param("currentDateTime") LocalDateTime currentDateTime,
       @Param("tenantId") String tenantId,
       @Param("isDeleted") boolean isDeleted);
 
+  @Query(
+      """
+        SELECT r FROM Reservation r
+        JOIN FETCH r.status rs
+        JOIN FETCH rs.statusType
+        JOIN FETCH r.arrangement a
+        JOIN FETCH a.baby
+        JOIN FETCH a.servicePackage
+        JOIN FETCH a.status ast
+        JOIN FETCH ast.statusType
+        LEFT JOIN FETCH a.discount
+        LEFT JOIN FETCH a.paymentType
+        LEFT JOIN FETCH a.giftCard
+        WHERE r.isDeleted = :isDeleted
+        """)
+  List<Reservation> findByIsDeletedWithDetails(@Param("isDeleted") boolean isDeleted);
+
   @Query(
       value =
           """
-            SELECT COALESCE(SUM(counts), 0) AS total_count
+            SELECT
+                r.reservation_id, r.arrangement_id, r.created_at, r.start_date, r.end_date,
+                r.note, r.sort_bucket, a.remaining_term,
+                s.status_id, s.status_name, s.status_code, st.status_type_id, st.status_type_code,
+                b.baby_id, b.baby_name, b.baby_surname, b.phone_number,
+                sp.service_package_name
             FROM (
-            SELECT COUNT(r.*) AS counts
-            FROM reservation r
-            LEFT JOIN arrangement a ON r.arrangement_id = a.arrangement_id
-            WHERE DATE(r.start_date) = :currentDate AND a.service_package_id = :servicePackageId
-            AND r.tenant_id = :tenantId AND r.is_deleted = :isDeleted
-            GROUP BY r.arrangement_id
-            ) AS subquery
+                SELECT p.*
+                FROM (
+                    SELECT r.*,
+                        CASE
+                            WHEN CAST(r.start_date AS DATE) = CAST(:now AS DATE) THEN 1
+                            WHEN r.start_date > :now THEN 2
+                            ELSE 3
+                        END AS sort_bucket
+                    FROM reservation r
+                    WHERE (CAST(:statusId AS INTEGER) IS NULL OR r.status_id = CAST(:statusId AS INTEGER))
+                    AND (CAST(:arrangementId AS INTEGER) IS NULL OR r.arrangement_id = CAST(:arrangementId AS INTEGER))
+                    AND (CAST(:startDate AS TIMESTAMP) IS NULL OR r.start_date >= CAST(:startDate AS TIMESTAMP))
+                    AND (CAST(:endDate AS TIMESTAMP) IS NULL OR r.start_date <= CAST(:endDate AS TIMESTAMP))
+                    AND (r.tenant_id = :tenantId)
+                    AND (r.is_deleted = :isDeleted)
+                ) p
+                WHERE (CAST(:cursorSortBucket AS INTEGER) IS NULL
+                    OR p.sort_bucket > CAST(:cursorSortBucket AS INTEGER)
+                    OR (p.sort_bucket = CAST(:cursorSortBucket AS INTEGER)
+                        AND (p.start_date, p.reservation_id)
+                            < (CAST(:cursorStartDate AS TIMESTAMP), CAST(:cursorReservationId AS INTEGER))))
+                ORDER BY p.sort_bucket ASC, p.start_date DESC, p.reservation_id DESC
+                LIMIT :limit OFFSET :offset
+            ) r
+            JOIN arrangement a ON r.arrangement_id = a.arrangement_id
+            JOIN baby b ON a.baby_id = b.baby_id
+            JOIN service_package sp ON a.service_package_id = sp.service_package_id
+            JOIN status s ON r.status_id = s.status_id
+            JOIN status_type st ON s.status_type_id = st.status_type_id
+            ORDER BY r.sort_bucket ASC, r.start_date DESC, r.reservation_id DESC
             """,
       nativeQuery = true)
-  int countServicePackageByStartDateAndServicePackageId(
-      @Param("currentDate") LocalDate currentDate,
-      @Param("servicePackageId") int servicePackageId,
+  List<ReservationTableProjection> findAllReservationPageNative(
+      @Param("statusId") Integer statusId,
+      @Param("arrangementId") Integer arrangementId,
+      @Param("startDate") LocalDateTime startDate,
+      @Param("endDate") LocalDateTime endDate,
       @Param("tenantId") String tenantId,
-      @Param("isDeleted") boolean isDeleted);
+      @Param("isDeleted") boolean isDeleted,
+      @Param("now") LocalDateTime now,
+      @Param("cursorSortBucket") Integer cursorSortBucket,
+      @Param("cursorStartDate") LocalDateTime cursorStartDate,
+      @Param("cursorReservationId") Integer cursorReservationId,
+      @Param("limit") int limit,
+      @Param("offset") long offset);
 
   @Query(
       value =
           """
-            SELECT DISTINCT DATE(start_date) FROM reservation
-             WHERE start_date < :currentDateTime
-             AND tenant_id = :tenantId AND is_deleted = :isDeleted
+            SELECT COUNT(*)
+            FROM reservation r
+            WHERE (CAST(:statusId AS INTEGER) IS NULL OR r.status_id = CAST(:statusId AS INTEGER))
+            AND (CAST(:arrangementId AS INTEGER) IS NULL OR r.arrangement_id = CAST(:arrangementId AS INTEGER))
+            AND (CAST(:startDate AS TIMESTAMP) IS NULL OR r.start_date >= CAST(:startDate AS TIMESTAMP))
+            AND (CAST(:endDate AS TIMESTAMP) IS NULL OR r.start_date <= CAST(:endDate AS TIMESTAMP))
+            AND (r.tenant_id = :tenantId)
+            AND (r.is_deleted = :isDeleted)
             """,
       nativeQuery = true)
-  List<LocalDateProjection> findDistinctReservationDates(
-      @Param("currentDateTime") LocalDateTime currentDateTime,
+  long countAllReservationNative(
+      @Param("statusId") Integer statusId,
+      @Param("arrangementId") Integer arrangementId,
+      @Param("startDate") LocalDateTime startDate,
+      @Param("endDate") LocalDateTime endDate,
       @Param("tenantId") String tenantId,
       @Param("isDeleted") boolean isDeleted);
 
-  List<Reservation> findByIsDeleted(boolean isDeleted);
-
   @Query(
       value =
           """
-            SELECT r.*
+            SELECT r.status_id AS id, COUNT(r.reservation_id) AS count
             FROM reservation r
             JOIN status s ON r.status_id = s.status_id
-            JOIN arrangement a ON r.arrangement_id = a.arrangement_id
-            WHERE (:statusId IS NULL OR s.status_id = :statusId)
-            AND (:arrangementId IS NULL OR a.arrangement_id = :arrangementId)
-            AND (r.start_date >= :startDate AND r.start_date <= :endDate)
-            AND (r.tenant_id = :tenantId)
-            AND (r.is_deleted = :isDeleted)
-            ORDER BY
-                 CASE
-                     WHEN r.start_date::date = CURRENT_DATE THEN 1
-                     WHEN r.start_date > NOW() THEN 2
-                     ELSE 3
-                 END,
-                 CASE
-                     WHEN r.start_date > NOW() THEN r.start_date
-                     ELSE r.start_date
-                 END DESC,
-            r.start_date ASC
+            JOIN status_type st ON s.status_type_id = st.status_type_id
+            WHERE r.start_date >= :dayStart AND r.start_date < :nextDayStart
+            AND st.status_type_code = :statusTypeCode
+            AND r.tenant_id = :tenantId AND r.is_deleted = :isDeleted
+            GROUP BY r.status_id
             """,
       nativeQuery = true)
-  List<Reservation> findAllReservationNativeWithStartDateAndDate(
-      @Param("statusId") Integer statusId,
-      @Param("arrangementId") Integer arrangementId,
-      @Param("startDate") LocalDateTime startDate,
-      @Param("endDate") LocalDateTime endDate,
+  List<CountByIdProjection> countByStatusForDay(
+      @Param("dayStart") LocalDateTime dayStart,
+      @Param("nextDayStart") LocalDateTime nextDayStart,
+      @Param("statusTypeCode") String statusTypeCode,
       @Param("tenantId") String tenantId,
       @Param("isDeleted") boolean isDeleted);
 
   @Query(
       value =
           """
-            SELECT r.*
+            SELECT a.service_package_id AS id, COUNT(r.reservation_id) AS count
             FROM reservation r
-            JOIN status s ON r.status_id = s.status_id
             JOIN arrangement a ON r.arrangement_id = a.arrangement_id
-            WHERE (:statusId IS NULL OR s.status_id = :statusId)
-            AND (:arrangementId IS NULL OR a.arrangement_id = :arrangementId)
-            AND (r.tenant_id = :tenantId)
-            AND (r.is_deleted = :isDeleted)
-            ORDER BY
-                 CASE
-                     WHEN r.start_date::date = CURRENT_DATE THEN 1
-                     WHEN r.start_date > NOW() THEN 2
-                     ELSE 3
-                 END,
-                 CASE
-                     WHEN r.start_date > NOW() THEN r.start_date
-                     ELSE r.start_date
-                 END DESC,
-            r.start_date ASC
+            WHERE r.start_date >= :dayStart AND r.start_date < :nextDayStart
+            AND r.tenant_id = :tenantId AND r.is_deleted = :isDeleted
+            GROUP BY a.service_package_id
             """,
       nativeQuery = true)
-  List<Reservation> findAllReservationNative(
-      @Param("statusId") Integer statusId,
-      @Param("arrangementId") Integer arrangementId,
+  List<CountByIdProjection> countByServicePackageForDay(
+      @Param("dayStart") LocalDateTime dayStart,
+      @Param("nextDayStart") LocalDateTime nextDayStart,
       @Param("tenantId") String tenantId,
       @Param("isDeleted") boolean isDeleted);
 }
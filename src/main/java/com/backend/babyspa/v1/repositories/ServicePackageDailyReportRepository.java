@@ -1,15 +1,16 @@
 package com.backend.babyspa.v1.repositories;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.backend.babyspa.v1.models.ServicePackageDailyReport;
-import com.backend.babyspa.v1.projections.ServicePackagesDailyReportProjection;
 
 @Repository
 public interface ServicePackageDailyReportRepository
@@ -17,143 +18,158 @@ public interface ServicePackageDailyReportRepository
 
   List<ServicePackageDailyReport> findAllByServicePackageIsNull();
 
-  boolean existsByDate(LocalDate date);
+  @Modifying
+  @Query(value = "DELETE FROM service_package_daily_report WHERE tenant_id = :tenantId", nativeQuery = true)
+  int deleteAllByTenantId(@Param("tenantId") String tenantId);
 
-  void deleteByDate(LocalDate date);
-
-  void deleteAll();
+  @Modifying
+  @Query(
+      value = "DELETE FROM service_package_daily_report WHERE tenant_id = :tenantId AND date = :date",
+      nativeQuery = true)
+  int deleteByDateAndTenantId(@Param("date") LocalDate date, @Param("tenantId") String tenantId);
 
+  // paketi bez rezervacija za taj dan dobijaju red sa 0 iskoristenih paketa
+  @Modifying
   @Query(
       value =
           """
+			INSERT INTO service_package_daily_report
+			    (number_of_used_packages, date, service_package_id, tenant_id)
 			SELECT
-			    TO_CHAR(date, 'DD.MM.YYYY.') AS date,
-			    SUM(number_of_used_packages) AS number_of_used_packages
+			    COALESCE(used.number_of_used_packages, 0), :date, sp.service_package_id, :tenantId
 			FROM
-			    service_package_daily_report
+			    service_package sp
+			LEFT JOIN (
+			    SELECT a.service_package_id, COUNT(r.reservation_id) AS number_of_used_packages
+			    FROM reservation r
+			    JOIN arrangement a ON r.arrangement_id = a.arrangement_id
+			    WHERE r.start_date >= :dayStart AND r.start_date < :nextDayStart
+			    AND r.tenant_id = :tenantId AND r.is_deleted = :isDeleted
+			    GROUP BY a.service_package_id
+			) used ON used.service_package_id = sp.service_package_id
 			WHERE
-			    (:servicePackageId IS NULL OR service_package_id = :servicePackageId)
-			AND (tenant_id = :tenantId)
-			GROUP BY
-			    date
-			ORDER BY
-			    MIN(date) ASC
+			    sp.tenant_id = :tenantId AND sp.is_deleted = :isDeleted
 			""",
       nativeQuery = true)
-  List<ServicePackagesDailyReportProjection> findAllByServicePackageId(
-      @Param("servicePackageId") Integer servicePackageId, @Param("tenantId") String tenantId);
+  int insertDailyReportForDate(
+      @Param("date") LocalDate date,
+      @Param("dayStart") LocalDateTime dayStart,
+      @Param("nextDayStart") LocalDateTime nextDayStart,
+      @Param("tenantId") String tenantId,
+      @Param("isDeleted") boolean isDeleted);
 
+  @Modifying
   @Query(
       value =
           """
+			INSERT INTO service_package_daily_report_staging
+			    (number_of_used_packages, date, service_package_id, tenant_id)
 			SELECT
-			    TO_CHAR(date, 'DD.MM.YYYY.') AS date,
-			    SUM(number_of_used_packages) AS number_of_used_packages
-			FROM
-			    service_package_daily_report
+			    COALESCE(used.number_of_used_packages, 0), d.date, sp.service_package_id, :tenantId
+			FROM (
+			    SELECT DISTINCT CAST(r.start_date AS DATE) AS date
+			    FROM reservation r
+			    WHERE r.start_date >= :rangeStart AND r.start_date < :rangeEnd
+			    AND r.tenant_id = :tenantId AND r.is_deleted = :isDeleted
+			) d
+			CROSS JOIN service_package sp
+			LEFT JOIN (
+			    SELECT
+			        CAST(r.start_date AS DATE) AS date,
+			        a.service_package_id,
+			        COUNT(r.reservation_id) AS number_of_used_packages
+			    FROM reservation r
+			    JOIN arrangement a ON r.arrangement_id = a.arrangement_id
+			    WHERE r.start_date >= :rangeStart AND r.start_date < :rangeEnd
+			    AND r.tenant_id = :tenantId AND r.is_deleted = :isDeleted
+			    GROUP BY CAST(r.start_date AS DATE), a.service_package_id
+			) used ON used.date = d.date AND used.service_package_id = sp.service_package_id
 			WHERE
-			    (:servicePackageId IS NULL OR service_package_id = :servicePackageId)
-			AND (date >= :startDate AND date <= :endDate)
-			AND (tenant_id = :tenantId)
-			GROUP BY
-			    date
-			ORDER BY
-			    MIN(date) ASC
+			    sp.tenant_id = :tenantId AND sp.is_deleted = :isDeleted
 			""",
       nativeQuery = true)
-  List<ServicePackagesDailyReportProjection> findAllByServicePackageIdAndStartDateAndEndDate(
-      @Param("servicePackageId") Integer servicePackageId,
-      @Param("startDate") LocalDate startDate,
-      @Param("endDate") LocalDate endDate,
-      @Param("tenantId") String tenantId);
+  int insertStagingForRange(
+      @Param("rangeStart") LocalDateTime rangeStart,
+      @Param("rangeEnd") LocalDateTime rangeEnd,
+      @Param("tenantId") String tenantId,
+      @Param("isDeleted") boolean isDeleted);
 
+  @Modifying
   @Query(
       value =
           """
+			INSERT INTO service_package_daily_report
+			    (number_of_used_packages, date, service_package_id, tenant_id)
 			SELECT
-			    TO_CHAR(date, 'Month YYYY') AS date,
-			    SUM(number_of_used_packages) AS number_of_used_packages
+			    number_of_used_packages, date, service_package_id, tenant_id
 			FROM
-			    service_package_daily_report
+			    service_package_daily_report_staging
 			WHERE
-			    (:servicePackageId IS NULL OR service_package_id = :servicePackageId)
-			AND (tenant_id = :tenantId)
-			GROUP BY
-			    TO_CHAR(date, 'Month YYYY')
-			ORDER BY
-			    MIN(date) ASC
+			    tenant_id = :tenantId
 			""",
       nativeQuery = true)
-  List<ServicePackagesDailyReportProjection> findAllByServicePackageIdGroupByMonth(
-      @Param("servicePackageId") Integer servicePackageId, @Param("tenantId") String tenantId);
+  int publishStaging(@Param("tenantId") String tenantId);
+
+  @Modifying
+  @Query(
+      value = "DELETE FROM service_package_daily_report_staging WHERE tenant_id = :tenantId",
+      nativeQuery = true)
+  int deleteStagingByTenantId(@Param("tenantId") String tenantId);
+
+  @Modifying
+  @Query(
+      value = "DELETE FROM service_package_report_rollup WHERE tenant_id = :tenantId",
+      nativeQuery = true)
+  int deleteRollupsByTenantId(@Param("tenantId") String tenantId);
 
   @Query(
       value =
           """
 			SELECT
-			    TO_CHAR(date, 'Month YYYY') AS date,
-			    SUM(number_of_used_packages) AS number_of_used_packages
-			FROM
-			    service_package_daily_report
-			WHERE
-			    (:servicePackageId IS NULL OR service_package_id = :servicePackageId)
-			AND (date >= :startDate AND date <= :endDate)
-			AND (tenant_id = :tenantId)
-			GROUP BY
-			    TO_CHAR(date, 'Month YYYY')
-			ORDER BY
-			    MIN(date) ASC
+			    EXISTS (SELECT 1 FROM service_package_daily_report WHERE tenant_id = :tenantId)
+			    AND NOT EXISTS (SELECT 1 FROM service_package_report_rollup WHERE tenant_id = :tenantId)
 			""",
       nativeQuery = true)
-  List<ServicePackagesDailyReportProjection>
-      findAllByServicePackageIdAndStartDateAndEndDateGroupByMonth(
-          @Param("servicePackageId") Integer servicePackageId,
-          @Param("startDate") LocalDate startDate,
-          @Param("endDate") LocalDate endDate,
-          @Param("tenantId") String tenantId);
+  boolean isMissingRollups(@Param("tenantId") String tenantId);
 
+  @Modifying
   @Query(
       value =
           """
-			SELECT
-			    TO_CHAR(date, 'YYYY') AS date,
-			    SUM(number_of_used_packages) AS number_of_used_packages
-			FROM
-			    service_package_daily_report
-			WHERE
-			    (:servicePackageId IS NULL OR service_package_id = :servicePackageId)
-			AND (tenant_id = :tenantId)
-			GROUP BY
-			    TO_CHAR(date, 'YYYY')
-			ORDER BY
-			    MIN(date) ASC
+			DELETE FROM service_package_report_rollup
+			WHERE tenant_id = :tenantId AND period = :period AND period_start = :periodStart
 			""",
       nativeQuery = true)
-  List<ServicePackagesDailyReportProjection> findAllByServicePackageIdGroupByYear(
-      @Param("servicePackageId") Integer servicePackageId, @Param("tenantId") String tenantId);
+  int deleteRollupsForPeriod(
+      @Param("period") String period,
+      @Param("periodStart") LocalDate periodStart,
+      @Param("tenantId") String tenantId);
 
+  // bez raspona se racunaju zbirovi za sve periode tenanta
+  @Modifying
   @Query(
       value =
           """
+			INSERT INTO service_package_report_rollup
+			    (period, period_start, service_package_id, number_of_used_packages, tenant_id)
 			SELECT
-			    TO_CHAR(date, 'YYYY') AS date,
-			    SUM(number_of_used_packages) AS number_of_used_packages
-			FROM
-			    service_package_daily_report
-			WHERE
-			    (:servicePackageId IS NULL OR service_package_id = :servicePackageId)
-			AND (date >= :startDate AND date <= :endDate)
-			AND (tenant_id = :tenantId)
+			    :period, d.period_start, d.service_package_id, SUM(d.number_of_used_packages), :tenantId
+			FROM (
+			    SELECT
+			        CAST(DATE_TRUNC(:period, CAST(date AS TIMESTAMP)) AS DATE) AS period_start,
+			        service_package_id, number_of_used_packages
+			    FROM service_package_daily_report
+			    WHERE tenant_id = :tenantId
+			    AND (CAST(:rangeStart AS DATE) IS NULL OR date >= :rangeStart)
+			    AND (CAST(:rangeEnd AS DATE) IS NULL OR date < :rangeEnd)
+			) d
 			GROUP BY
-			    TO_CHAR(date, 'YYYY')
-			ORDER BY
-			    MIN(date) ASC
+			    d.period_start, d.service_package_id
 			""",
       nativeQuery = true)
-  List<ServicePackagesDailyReportProjection>
-      findAllByServicePackageIdAndStartDateAndEndDateGroupByYear(
-          @Param("servicePackageId") Integer servicePackageId,
-          @Param("startDate") LocalDate startDate,
-          @Param("endDate") LocalDate endDate,
-          @Param("tenantId") String tenantId);
+  int insertRollups(
+      @Param("period") String period,
+      @Param("rangeStart") LocalDate rangeStart,
+      @Param("rangeEnd") LocalDate rangeEnd,
+      @Param("tenantId") String tenantId);
 }
@@ -1,11 +1,16 @@
 package com.backend.babyspa.v1.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.backend.babyspa.v1.models.User;
+import com.backend.babyspa.v1.projections.TokenVersionProjection;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
@@ -19,4 +24,22 @@ public interface UserRepository extends JpaRepository<User, Integer> {
   boolean existsByUsernameAndUserIdNot(String username, int userId);
 
   boolean existsByEmailAndUserIdNot(String email, int userId);
+
+  @Modifying
+  @Query(
+      value = "UPDATE application_user SET token_version = token_version + 1 WHERE user_id = :userId",
+      nativeQuery = true)
+  void incrementTokenVersion(@Param("userId") int userId);
+
+  @Query(
+      value = "SELECT token_version FROM application_user WHERE user_id = :userId",
+      nativeQuery = true)
+  int findTokenVersion(@Param("userId") int userId);
+
+  @Query(
+      value =
+          "SELECT user_id AS id, token_version AS version FROM application_user"
+              + " WHERE token_version > 0",
+      nativeQuery = true)
+  List<TokenVersionProjection> findRevokedTokenVersions();
 }
@@ -0,0 +1,26 @@
+package com.backend.babyspa.v1.scheduler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.backend.babyspa.v1.services.ArrangementAudService;
+
+@Component
+public class ArrangementAudScheduler {
+
+	@Autowired
+	ArrangementAudService arrangementAudService;
+
+	@Scheduled(fixedDelayString = "${app.audit.flush-interval}")
+	public void flushArrangementAudits() {
+		arrangementAudService.flush();
+	}
+
+	// prvo pokretanje odmah nakon starta preuzima zapise koji su ostali u outbox tabeli
+	@Scheduled(initialDelayString = "${app.audit.flush-interval}", fixedDelayString = "${app.audit.recovery-interval}")
+	public void recoverArrangementAudits() {
+		arrangementAudService.recoverOutbox();
+	}
+
+}
@@ -1,14 +1,12 @@
 package com.backend.babyspa.v1.scheduler;
 
-import java.util.Arrays;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import com.backend.babyspa.v1.models.TenantNames;
 import com.backend.babyspa.v1.services.BabyService;
 import com.backend.babyspa.v1.services.ReservationService;
+import com.backend.babyspa.v1.services.TodayReservationCounterService;
 
 @Component
 public class DailyReportScheduler {
@@ -19,21 +17,30 @@ public class DailyReportScheduler {
 	@Autowired
 	BabyService babyService;
 
+	@Autowired
+	TenantJobRunner tenantJobRunner;
+
+	@Autowired
+	TodayReservationCounterService todayReservationCounterService;
+
 	@Scheduled(cron = "00 59 23 * * *", zone = "Europe/Sarajevo")
 	public void generateReports() {
-		Arrays.stream(TenantNames.values())
-				.forEach(tenant -> reservationService.generateReportForAllDateInReservation(true, null, tenant.name()));
+		tenantJobRunner.runForAllTenants("generateReports", tenantId -> {
+			reservationService.generateReportIncremental(tenantId);
+			// brojaci danasnjih rezervacija se uskladjuju sa bazom
+			todayReservationCounterService.reconcile(tenantId);
+		});
 	}
 
 	@Scheduled(cron = "0 0 1 * * *", zone = "Europe/Sarajevo")
 	public void updateReservationStatusDayBefore() {
-		reservationService.updateReservationWithStatusCreatedToStatusUsed();
+		tenantJobRunner.runForAllTenants("updateReservationStatusDayBefore",
+				reservationService::updateReservationWithStatusCreatedToStatusUsed);
 	}
 
 	@Scheduled(cron = "0 59 23 * * *", zone = "Europe/Sarajevo")
 	public void updateAllNumberOfMonths() {
-
-		babyService.updateMonthsForAll();
+		tenantJobRunner.runForAllTenants("updateAllNumberOfMonths", babyService::updateMonthsForAll);
 	}
 
 }
@@ -0,0 +1,75 @@
+package com.backend.babyspa.v1.scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.babyspa.v1.config.TenantContext;
+import com.backend.babyspa.v1.config.TenantTaskDecorator;
+import com.backend.babyspa.v1.models.TenantNames;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class TenantJobRunner {
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	TenantTaskDecorator tenantTaskDecorator;
+
+	@Value("${app.scheduler.tenant-parallelism}")
+	int tenantParallelism;
+
+	@Value("${app.scheduler.tenant-timeout}")
+	Duration tenantTimeout;
+
+	// svaki tenant se obradjuje na svom virtualnom threadu, u svojoj transakciji i sa svojim
+	// TenantContext-om, pa greska ili timeout jednog tenanta ne prekida obradu ostalih. Korisnik
+	// koji je pokrenuo posao (ako postoji) se prenosi na sve thread-ove.
+	public void runForAllTenants(String jobName, Consumer<String> job) {
+		Semaphore permits = new Semaphore(tenantParallelism);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setTimeout((int) tenantTimeout.toSeconds());
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (TenantNames tenant : TenantNames.values()) {
+				executor.submit(tenantTaskDecorator
+						.decorate(() -> runForTenant(jobName, tenant.name(), job, permits, transactionTemplate)));
+			}
+		}
+	}
+
+	private void runForTenant(String jobName, String tenantId, Consumer<String> job, Semaphore permits,
+			TransactionTemplate transactionTemplate) {
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+
+		long start = System.nanoTime();
+		try {
+			TenantContext.runWithTenant(tenantId,
+					() -> transactionTemplate.executeWithoutResult(status -> job.accept(tenantId)));
+			log.info("Job {} for tenant {} finished in {} ms", jobName, tenantId,
+					Duration.ofNanos(System.nanoTime() - start).toMillis());
+		} catch (RuntimeException e) {
+			log.error("Job {} for tenant {} failed after {} ms: {}", jobName, tenantId,
+					Duration.ofNanos(System.nanoTime() - start).toMillis(), e.getMessage(), e);
+		} finally {
+			permits.release();
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.backend.babyspa.v1.scheduler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.backend.babyspa.v1.services.TokenRevocationService;
+
+@Component
+public class TokenRevocationScheduler {
+
+	@Autowired
+	TokenRevocationService tokenRevocationService;
+
+	// preuzima opozvane tokene sa drugih instanci aplikacije
+	@Scheduled(fixedDelayString = "${jwt.revocation-refresh-interval}")
+	public void refreshTokenVersions() {
+		tokenRevocationService.refresh();
+	}
+
+}
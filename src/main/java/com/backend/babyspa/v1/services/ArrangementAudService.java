@@ -1,30 +1,159 @@
 package com.backend.babyspa.v1.services;
 
-import com.backend.babyspa.v1.models.Arrangement;
-import com.backend.babyspa.v1.models.ArrangementAud;
-import com.backend.babyspa.v1.models.User;
-import com.backend.babyspa.v1.models.UserActionType;
-import com.backend.babyspa.v1.repositories.ArrangementAudRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.babyspa.v1.config.TenantContext;
+import com.backend.babyspa.v1.models.Arrangement;
+import com.backend.babyspa.v1.models.ArrangementAudOutbox;
+import com.backend.babyspa.v1.models.User;
+import com.backend.babyspa.v1.models.UserActionType;
+import com.backend.babyspa.v1.repositories.ArrangementAudBatchRepository;
+import com.backend.babyspa.v1.repositories.ArrangementAudOutboxRepository;
+
+import lombok.extern.slf4j.Slf4j;
 
+// audit se u transakciji izmjene upisuje samo kao jedan red u outbox tabelu, a commit samo budi
+// writer koji ArrangementAudScheduler pokrece. Writer uvijek cita outbox tabelu po
+// arrangement_aud_outbox_id, pod advisory lock-om, pa se zapisi jednog aranzmana upisuju (i
+// dobijaju verzije snapshot-a) redom kojim su upisani u outbox, i nakon restarta i sa vise
+// instanci. Istovremene izmjene istog aranzmana odbija version kolona, pa je redoslijed Id-eva u
+// outbox-u i redoslijed izmjena tog aranzmana.
+@Slf4j
 @Service
 public class ArrangementAudService {
 
-  @Autowired private ArrangementAudRepository arrangementAudRepository;
+  @Autowired private ArrangementAudOutboxRepository arrangementAudOutboxRepository;
+
+  @Autowired private ArrangementAudBatchRepository arrangementAudBatchRepository;
 
   @Autowired private ArrangementSnapshotService arrangementSnapshotService;
 
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Value("${app.audit.batch-size}")
+  private int batchSize;
+
+  private final AtomicBoolean pending = new AtomicBoolean();
+
   @Transactional
   public void save(Arrangement arrangement, User actionByUser, UserActionType userActionType) {
-    ArrangementAud arrangementAud = new ArrangementAud();
+    arrangementAudOutboxRepository.save(
+        buildArrangementAudOutbox(arrangement, actionByUser, userActionType));
+
+    afterCommit(() -> pending.set(true));
+  }
+
+  public void flush() {
+    if (pending.getAndSet(false)) {
+      drainOutbox();
+    }
+  }
+
+  // preuzima zapise koji su ostali nakon restarta ili ih je upisala druga instanca
+  public void recoverOutbox() {
+    drainOutbox();
+  }
+
+  private synchronized void drainOutbox() {
+    int written;
+    do {
+      written = write();
+    } while (written == batchSize);
+  }
+
+  // greska ostavlja zapise u outbox tabeli, pa ih sljedece praznjenje ponovo pokusava upisati.
+  // Batch se cita u istoj transakciji u kojoj se upisuje, pa zapis sa manjim Id-em koji jos nije
+  // upisan ne moze zaostati iza novijeg zapisa istog aranzmana.
+  private int write() {
+    try {
+      return new TransactionTemplate(transactionManager)
+          .execute(
+              status -> {
+                arrangementAudBatchRepository.lockOutbox();
+                List<ArrangementAudOutbox> records =
+                    arrangementAudBatchRepository.findOutbox(batchSize);
+                if (records.isEmpty()) {
+                  return 0;
+                }
+
+                Set<Integer> deletedIds =
+                    arrangementAudBatchRepository.deleteOutbox(
+                        records.stream()
+                            .map(ArrangementAudOutbox::getArrangementAudOutboxId)
+                            .toList());
+                List<ArrangementAudOutbox> deleted =
+                    records.stream()
+                        .filter(
+                            record -> deletedIds.contains(record.getArrangementAudOutboxId()))
+                        .toList();
+                if (!deleted.isEmpty()) {
+                  arrangementAudBatchRepository.insertAuds(
+                      deleted, arrangementSnapshotService.saveAll(deleted));
+                }
+                return records.size();
+              });
+    } catch (RuntimeException e) {
+      log.error("Writing arrangement audit records failed: {}", e.getMessage(), e);
+      return 0;
+    }
+  }
+
+  private void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+
+  private ArrangementAudOutbox buildArrangementAudOutbox(
+      Arrangement arrangement, User actionByUser, UserActionType userActionType) {
+    ArrangementAudOutbox arrangementAudOutbox = new ArrangementAudOutbox();
 
-    arrangementAud.setArrangementSnapshot(arrangementSnapshotService.save(arrangement));
-    arrangementAud.setUserActionType(userActionType);
-    arrangementAud.setArrangementId(arrangement.getArrangementId());
-    arrangementAud.setActionByUser(actionByUser);
+    arrangementAudOutbox.setTenantId(
+        Objects.nonNull(arrangement.getTenantId())
+            ? arrangement.getTenantId()
+            : TenantContext.getTenant());
+    arrangementAudOutbox.setArrangementId(arrangement.getArrangementId());
+    arrangementAudOutbox.setUserActionType(userActionType);
+    arrangementAudOutbox.setActionByUserId(
+        Objects.nonNull(actionByUser) ? actionByUser.getUserId() : null);
+    arrangementAudOutbox.setActionAt(LocalDateTime.now());
+    arrangementAudOutbox.setNote(arrangement.getNote());
+    arrangementAudOutbox.setPrice(arrangement.getPrice());
+    arrangementAudOutbox.setRemainingTerm(arrangement.getRemainingTerm());
+    arrangementAudOutbox.setExtendDurationDays(arrangement.getExtendDurationDays());
+    arrangementAudOutbox.setBabyInfo(arrangement.getBaby().toString());
+    arrangementAudOutbox.setServicePackageInfo(arrangement.getServicePackage().toString());
+    arrangementAudOutbox.setDiscountInfo(
+        Objects.nonNull(arrangement.getDiscount()) ? arrangement.getDiscount().toString() : "");
+    arrangementAudOutbox.setPaymentTypeInfo(
+        Objects.nonNull(arrangement.getPaymentType())
+            ? arrangement.getPaymentType().toString()
+            : "");
+    arrangementAudOutbox.setGiftCardInfo(
+        Objects.nonNull(arrangement.getGiftCard()) ? arrangement.getGiftCard().toString() : "");
+    arrangementAudOutbox.setStatusInfo(arrangement.getStatus().toString());
 
-    arrangementAudRepository.save(arrangementAud);
+    return arrangementAudOutbox;
   }
 }
@@ -5,6 +5,7 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import com.backend.babyspa.v1.exceptions.BusinessException;
@@ -17,21 +18,28 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import com.backend.babyspa.v1.config.TenantContext;
+import com.backend.babyspa.v1.dtos.ArrangementHistoryDto;
+import com.backend.babyspa.v1.dtos.ArrangementSnapshotDto;
 import com.backend.babyspa.v1.dtos.CreateArrangementDto;
 import com.backend.babyspa.v1.dtos.FindAllArrangementDto;
 import com.backend.babyspa.v1.dtos.ShortDetailsDto;
 import com.backend.babyspa.v1.dtos.UpdateArrangementDto;
 import com.backend.babyspa.v1.exceptions.NotFoundException;
+import com.backend.babyspa.v1.repositories.ArrangementHistoryRepository;
 import com.backend.babyspa.v1.repositories.ArrangementRepository;
 import com.backend.babyspa.v1.repositories.ReservationRepository;
 import com.backend.babyspa.v1.utils.DateTimeUtil;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.EntityManager;
+
 @Service
 public class ArrangementService {
 
   @Autowired private ArrangementRepository arrangementRepository;
 
+  @Autowired private ArrangementHistoryRepository arrangementHistoryRepository;
+
   @Autowired private ReservationRepository reservationRepository;
 
   @Autowired private ServicePackageService servicePackageService;
@@ -48,8 +56,12 @@ public class ArrangementService {
 
   @Autowired private ArrangementAudService arrangementAudService;
 
+  @Autowired private ArrangementSnapshotService arrangementSnapshotService;
+
   @Autowired private SecurityUtil securityUtil;
 
+  @Autowired private EntityManager entityManager;
+
   private static final String createdStatus = "created";
 
   public Arrangement findById(int arrangementId) {
@@ -110,6 +122,7 @@ public class ArrangementService {
     arrangement.setStatus(status);
     arrangement.setExtendDurationDays(dto.getExtendDurationDays());
     arrangement.setUpdatedByUser(securityUtil.getCurrentUser());
+    updateValidUntil(arrangement);
 
     arrangementRepository.save(arrangement);
     arrangementAudService.save(
@@ -185,16 +198,67 @@ public class ArrangementService {
 
   @Transactional
   public void decreaseRemainingTerm(Arrangement arrangement) {
-    arrangement.setRemainingTerm(arrangement.getRemainingTerm() - 1);
-
-    arrangementRepository.save(arrangement);
+    // termin se oduzima u bazi, da dvije istovremene rezervacije ne bi obje dobile posljednji
+    // termin
+    if (arrangementRepository.decreaseRemainingTerm(
+            arrangement.getArrangementId(), arrangement.getTenantId())
+        == 0) {
+      throw new BusinessException(
+          "Nije moguće napraviti rezervaciju jer je iskorišten maksimalan broj termina!");
+    }
+    syncRemainingTerm(arrangement, -1);
   }
 
   @Transactional
   public void increaseRemainingTerm(Arrangement arrangement) {
-    arrangement.setRemainingTerm(arrangement.getRemainingTerm() + 1);
+    if (arrangementRepository.increaseRemainingTerm(
+            arrangement.getArrangementId(), arrangement.getTenantId())
+        == 0) {
+      throw new NotFoundException(
+          "Nije pronađen aranžman sa ID: " + arrangement.getArrangementId() + "!");
+    }
+    syncRemainingTerm(arrangement, 1);
+  }
 
-    arrangementRepository.save(arrangement);
+  // poziva se kad se kreira prva rezervacija ili obrise rezervacija od koje je aranzman poceo da
+  // vazi
+  public void setFirstReservation(Arrangement arrangement, LocalDateTime firstReservationAt) {
+    arrangement.setFirstReservationAt(firstReservationAt);
+    updateValidUntil(arrangement);
+  }
+
+  private void updateValidUntil(Arrangement arrangement) {
+    arrangement.setValidUntil(
+        Objects.nonNull(arrangement.getFirstReservationAt())
+            ? arrangement
+                .getFirstReservationAt()
+                .plusDays(
+                    arrangement.getServicePackage().getServicePackageDurationDays()
+                        + (Objects.nonNull(arrangement.getExtendDurationDays())
+                            ? arrangement.getExtendDurationDays()
+                            : 0))
+            : null);
+  }
+
+  public List<FindAllArrangementDto> findAllExpiring(int days) {
+    LocalDateTime currentDateTime = LocalDateTime.now();
+
+    return arrangementRepository
+        .findByValidUntilBetweenAndRemainingTermGreaterThanAndIsDeletedOrderByValidUntilAsc(
+            currentDateTime, currentDateTime.plusDays(days), 0, false)
+        .stream()
+        .map(this::buildFindAllArrangementDtoFromArrangement)
+        .toList();
+  }
+
+  // UPDATE je promijenio i verziju, pa se entitet u sesiji osvjezava iz baze da kasniji save ne bi
+  // bio odbijen kao zastarjeli
+  private void syncRemainingTerm(Arrangement arrangement, int change) {
+    if (entityManager.contains(arrangement)) {
+      entityManager.refresh(arrangement);
+    } else {
+      arrangement.setRemainingTerm(arrangement.getRemainingTerm() + change);
+    }
   }
 
   @Transactional
@@ -216,6 +280,44 @@ public class ArrangementService {
     return arrangementId;
   }
 
+  public ArrangementSnapshotDto findSnapshot(int arrangementId, Integer version) {
+    findById(arrangementId);
+
+    return arrangementSnapshotService.findVersion(arrangementId, version);
+  }
+
+  public List<ArrangementHistoryDto> findHistory(
+      int arrangementId,
+      int size,
+      LocalDateTime cursorActionAt,
+      Integer cursorArrangementAudId) {
+    // kursor se sastoji od (actionAt, arrangementAudId) posljednjeg reda sa prethodne stranice i
+    // mora biti poslan kompletan
+    if (Objects.nonNull(cursorActionAt) != Objects.nonNull(cursorArrangementAudId)) {
+      throw new BusinessException(
+          "Kursor za paginaciju mora sadržavati actionAt i arrangementAudId!");
+    }
+
+    findById(arrangementId);
+
+    // cita se jedan red vise, da bi se za posljednji red na stranici znalo da li je promijenio
+    // stanje u odnosu na prethodnu akciju
+    List<ArrangementHistoryDto> history =
+        arrangementHistoryRepository.findHistory(
+            arrangementId,
+            TenantContext.getTenant(),
+            cursorActionAt,
+            cursorArrangementAudId,
+            size + 1);
+    for (int i = 0; i + 1 < history.size(); i++) {
+      if (history.get(i).getVersion() == history.get(i + 1).getVersion()) {
+        history.get(i).setChanges(Map.of());
+      }
+    }
+
+    return history.size() > size ? history.subList(0, size) : history;
+  }
+
   public boolean existsByServicePackage(int servicePackageId) {
     ServicePackage servicePackage = servicePackageService.findById(servicePackageId);
 
@@ -373,6 +475,8 @@ public class ArrangementService {
               arrangement.getPaymentType().getPaymentTypeName()));
     }
     findAllArrangementDto.setExtendDurationDays(arrangement.getExtendDurationDays());
+    findAllArrangementDto.setFirstReservationAt(arrangement.getFirstReservationAt());
+    findAllArrangementDto.setValidUntil(arrangement.getValidUntil());
     if (arrangement.getGiftCard() != null) {
       findAllArrangementDto.setGiftCard(
           new ShortDetailsDto(
@@ -1,39 +1,178 @@
 package com.backend.babyspa.v1.services;
 
-import com.backend.babyspa.v1.models.Arrangement;
-import com.backend.babyspa.v1.models.ArrangementSnapshot;
-import com.backend.babyspa.v1.repositories.ArrangementSnapshotRepository;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Objects;
+import com.backend.babyspa.v1.dtos.ArrangementSnapshotDto;
+import com.backend.babyspa.v1.exceptions.NotFoundException;
+import com.backend.babyspa.v1.models.ArrangementAudOutbox;
+import com.backend.babyspa.v1.models.ArrangementSnapshot;
+import com.backend.babyspa.v1.repositories.ArrangementAudBatchRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+// stanje aranzmana se cuva kao izmjena u odnosu na prethodnu verziju, a svakih keyframeInterval
+// verzija kao cijelo stanje. Stanje sa istim hash-om kao prethodna verzija se ne upisuje, nego
+// aud pokazuje na postojeci snapshot.
 @Service
 public class ArrangementSnapshotService {
 
-  @Autowired private ArrangementSnapshotRepository arrangementSnapshotRepository;
-
-  @Transactional
-  public ArrangementSnapshot save(Arrangement arrangement) {
-    ArrangementSnapshot arrangementSnapshot = new ArrangementSnapshot();
-
-    arrangementSnapshot.setNote(arrangement.getNote());
-    arrangementSnapshot.setPrice(arrangement.getPrice());
-    arrangementSnapshot.setRemainingTerm(arrangement.getRemainingTerm());
-    arrangementSnapshot.setExtendDurationDays(arrangement.getExtendDurationDays());
-    arrangementSnapshot.setBabyInfo(arrangement.getBaby().toString());
-    arrangementSnapshot.setServicePackageInfo(arrangement.getServicePackage().toString());
-    arrangementSnapshot.setDiscountInfo(
-        Objects.nonNull(arrangement.getDiscount()) ? arrangement.getDiscount().toString() : "");
-    arrangementSnapshot.setPaymentTypeInfo(
-        Objects.nonNull(arrangement.getPaymentType())
-            ? arrangement.getPaymentType().toString()
-            : "");
-    arrangementSnapshot.setGiftCardInfo(
-        Objects.nonNull(arrangement.getGiftCard()) ? arrangement.getGiftCard().toString() : "");
-    arrangementSnapshot.setStatusInfo(arrangement.getStatus().toString());
-
-    return arrangementSnapshotRepository.save(arrangementSnapshot);
+  @Autowired private ArrangementAudBatchRepository arrangementAudBatchRepository;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Value("${app.audit.keyframe-interval}")
+  private int keyframeInterval;
+
+  // vraca Id snapshot-a za svaki zapis, istim redoslijedom. Verzija je posljednja verzija + 1, pa
+  // zapisi moraju doci redom kojim su upisani u outbox (ArrangementAudService ih tako i cita).
+  public List<Integer> saveAll(List<ArrangementAudOutbox> records) {
+    Map<Integer, SnapshotChain> chains = new HashMap<>();
+    arrangementAudBatchRepository
+        .findLatestChains(
+            records.stream().map(ArrangementAudOutbox::getArrangementId).distinct().toList())
+        .forEach(
+            snapshot ->
+                chains
+                    .computeIfAbsent(snapshot.getArrangementId(), id -> new SnapshotChain())
+                    .add(snapshot));
+
+    List<ArrangementSnapshot> newSnapshots = new ArrayList<>();
+    List<ArrangementSnapshot> snapshotPerRecord = new ArrayList<>(records.size());
+    for (ArrangementAudOutbox record : records) {
+      Map<String, Object> state = buildState(record);
+      String contentHash = hash(state);
+      SnapshotChain chain =
+          chains.computeIfAbsent(record.getArrangementId(), id -> new SnapshotChain());
+
+      if (Objects.nonNull(chain.latest) && contentHash.equals(chain.latest.getContentHash())) {
+        snapshotPerRecord.add(chain.latest);
+        continue;
+      }
+
+      // snapshot-i iz starog formata nemaju hash, pa se za njih porede vrijednosti
+      Map<String, Object> changes = diff(chain.state, state);
+      if (Objects.nonNull(chain.latest) && changes.isEmpty()) {
+        snapshotPerRecord.add(chain.latest);
+        continue;
+      }
+
+      int version = Objects.nonNull(chain.latest) ? chain.latest.getVersion() + 1 : 1;
+      boolean keyframe =
+          Objects.isNull(chain.latest) || version - chain.keyframeVersion >= keyframeInterval;
+      ArrangementSnapshot snapshot =
+          new ArrangementSnapshot(
+              0,
+              record.getArrangementId(),
+              version,
+              keyframe,
+              keyframe ? state : changes,
+              List.copyOf(changes.keySet()),
+              contentHash);
+
+      chain.add(snapshot);
+      newSnapshots.add(snapshot);
+      snapshotPerRecord.add(snapshot);
+    }
+
+    if (!newSnapshots.isEmpty()) {
+      arrangementAudBatchRepository.insertSnapshots(newSnapshots);
+    }
+    return snapshotPerRecord.stream().map(ArrangementSnapshot::getArrangementSnapshotId).toList();
+  }
+
+  // version null vraca posljednju verziju
+  public ArrangementSnapshotDto findVersion(int arrangementId, Integer version) {
+    Integer requestedVersion =
+        Objects.nonNull(version)
+            ? version
+            : arrangementAudBatchRepository.findLatestVersion(arrangementId);
+    List<ArrangementSnapshot> chain =
+        Objects.nonNull(requestedVersion)
+            ? arrangementAudBatchRepository.findChain(arrangementId, requestedVersion)
+            : List.of();
+
+    if (chain.isEmpty() || chain.getLast().getVersion() != requestedVersion) {
+      throw new NotFoundException(
+          "Nije pronađena verzija "
+              + (Objects.nonNull(version) ? version + " " : "")
+              + "aranžmana sa ID: "
+              + arrangementId
+              + "!");
+    }
+
+    SnapshotChain snapshotChain = new SnapshotChain();
+    chain.forEach(snapshotChain::add);
+    return new ArrangementSnapshotDto(arrangementId, requestedVersion, snapshotChain.state);
+  }
+
+  private Map<String, Object> buildState(ArrangementAudOutbox record) {
+    Map<String, Object> state = new TreeMap<>();
+
+    state.put("remainingTerm", record.getRemainingTerm());
+    state.put("extendDurationDays", record.getExtendDurationDays());
+    state.put(
+        "price", Objects.nonNull(record.getPrice()) ? record.getPrice().toPlainString() : null);
+    state.put("note", record.getNote());
+    state.put("discountInfo", record.getDiscountInfo());
+    state.put("babyInfo", record.getBabyInfo());
+    state.put("statusInfo", record.getStatusInfo());
+    state.put("servicePackageInfo", record.getServicePackageInfo());
+    state.put("paymentTypeInfo", record.getPaymentTypeInfo());
+    state.put("giftCardInfo", record.getGiftCardInfo());
+
+    return state;
+  }
+
+  private Map<String, Object> diff(Map<String, Object> previous, Map<String, Object> current) {
+    Map<String, Object> changes = new TreeMap<>();
+    current.forEach(
+        (field, value) -> {
+          if (!previous.containsKey(field) || !Objects.equals(previous.get(field), value)) {
+            changes.put(field, value);
+          }
+        });
+    return changes;
+  }
+
+  // kljucevi su sortirani (TreeMap), pa isto stanje uvijek daje isti JSON i isti hash
+  private String hash(Map<String, Object> state) {
+    try {
+      return HexFormat.of()
+          .formatHex(
+              MessageDigest.getInstance("SHA-256")
+                  .digest(objectMapper.writeValueAsBytes(new TreeMap<>(state))));
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // cijelo stanje nakon posljednjeg snapshot-a, sastavljeno od keyframe-a i izmjena nakon njega
+  private static class SnapshotChain {
+
+    private ArrangementSnapshot latest;
+    private int keyframeVersion;
+    private Map<String, Object> state = new TreeMap<>();
+
+    private void add(ArrangementSnapshot snapshot) {
+      if (snapshot.isKeyframe()) {
+        state = new TreeMap<>(snapshot.getData());
+        keyframeVersion = snapshot.getVersion();
+      } else {
+        state.putAll(snapshot.getData());
+      }
+      latest = snapshot;
+    }
   }
 }
@@ -123,8 +123,8 @@ public class BabyService {
         .toList();
   }
 
-  public void updateMonthsForAll() {
-    babyRepository.updateAllNumberOfMonths(LocalDateTime.now(), false);
+  public void updateMonthsForAll(String tenantId) {
+    babyRepository.updateAllNumberOfMonths(LocalDateTime.now(), false, tenantId);
   }
 
   private ShortDetailsDto buildShortDetailsDtoFromBaby(Baby baby) {
@@ -121,8 +121,8 @@ public class GiftCardService {
       Boolean isUsed,
       Integer giftCardId,
       LocalDateTime startDate,
-      LocalDateTime endDate) {
-    List<FindAllGiftCardDto> giftCards;
+      LocalDateTime endDate,
+      Integer cursorGiftCardId) {
 
     if (Objects.isNull(startDate) && Objects.nonNull(endDate)) {
       startDate = DateTimeUtil.getDateTimeFromString("1999-01-01 00:00:00");
@@ -130,26 +130,26 @@ public class GiftCardService {
       endDate = LocalDateTime.now().plusMinutes(15);
     }
 
-    if (Objects.isNull(startDate) && Objects.isNull(endDate)) {
-      giftCards =
-          giftCardRepository.findAllGiftCardNative(
-              serialNumber, isUsed, giftCardId, TenantContext.getTenant());
-    } else {
-      giftCards =
-          giftCardRepository.findAllGiftCardNativeWithStartDateAndDate(
-              serialNumber, isUsed, giftCardId, startDate, endDate, TenantContext.getTenant());
-    }
-
     Pageable pageable = PageRequest.of(page, size);
-    int start = (int) pageable.getOffset();
-    int end = Math.min((start + pageable.getPageSize()), giftCards.size());
-    if (start > end) {
-      start = end = 0;
-    }
-
-    final Page<FindAllGiftCardDto> pageItem =
-        new PageImpl<>(giftCards.subList(start, end), pageable, giftCards.size());
-
-    return pageItem;
+    String tenantId = TenantContext.getTenant();
+
+    // ako je poslan kursor (gift_card_id posljednjeg reda), stranica pocinje odmah iza njega
+    List<FindAllGiftCardDto> giftCards =
+        giftCardRepository.findAllGiftCardPageNative(
+            serialNumber,
+            isUsed,
+            giftCardId,
+            startDate,
+            endDate,
+            tenantId,
+            cursorGiftCardId,
+            pageable.getPageSize(),
+            Objects.nonNull(cursorGiftCardId) ? 0 : pageable.getOffset());
+
+    long total =
+        giftCardRepository.countAllGiftCardNative(
+            serialNumber, isUsed, giftCardId, startDate, endDate, tenantId);
+
+    return new PageImpl<>(giftCards, pageable, total);
   }
 }
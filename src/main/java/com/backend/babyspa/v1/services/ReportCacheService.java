@@ -0,0 +1,288 @@
+package com.backend.babyspa.v1.services;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.babyspa.v1.dtos.ReportDailyValueDto;
+import com.backend.babyspa.v1.dtos.ReportSeriesDto;
+import com.backend.babyspa.v1.models.ReportSortEnum;
+import com.backend.babyspa.v1.repositories.ReportQueryRepository;
+import com.backend.babyspa.v1.repositories.ReportQueryRepository.ReportSource;
+import com.backend.babyspa.v1.utils.DateTimeUtil;
+
+// dnevni izvjestaji svakog tenanta se drze u memoriji kao nizovi int vrijednosti po seriji (status
+// ili paket usluga), gdje je indeks broj dana od prvog datuma, pa se svaki period racuna
+// sabiranjem dijela niza bez upita u bazu. Regenerisani datumi se ponovo ucitavaju kod sljedeceg
+// citanja, a puno generisanje izbacuje cijeli izvjestaj tenanta iz memorije.
+@Service
+public class ReportCacheService {
+
+  private final Map<ReportSource, Map<String, TenantReport>> reports =
+      new EnumMap<>(ReportSource.class);
+
+  @Autowired private ReportQueryRepository reportQueryRepository;
+
+  public ReportCacheService() {
+    for (ReportSource source : ReportSource.values()) {
+      reports.put(source, new ConcurrentHashMap<>());
+    }
+  }
+
+  // seriesId null znaci zbir svih serija
+  public <T> List<T> findAll(
+      Class<T> projectionType,
+      ReportSource source,
+      String groupDataType,
+      Integer seriesId,
+      LocalDate startDate,
+      LocalDate endDate,
+      String tenantId) {
+    ReportSortEnum granularity = reportQueryRepository.getGranularity(groupDataType);
+    TenantReport report = getReport(source, tenantId);
+
+    synchronized (report) {
+      List<int[]> dailyValues =
+          Objects.isNull(seriesId)
+              ? new ArrayList<>(report.values.values())
+              : report.values.containsKey(seriesId)
+                  ? List.of(report.values.get(seriesId))
+                  : List.of();
+
+      List<LocalDate> periodStarts =
+          getPeriodStarts(report, dailyValues, granularity, startDate, endDate);
+      int[] values = new int[periodStarts.size()];
+      dailyValues.forEach(
+          daily ->
+              addPeriodSums(report, daily, values, periodStarts, granularity, startDate, endDate));
+
+      return reportQueryRepository.toProjections(
+          projectionType, source, granularity, periodStarts, values);
+    }
+  }
+
+  public ReportSeriesDto findSeries(
+      ReportSource source,
+      String groupDataType,
+      LocalDate startDate,
+      LocalDate endDate,
+      String tenantId) {
+    ReportSortEnum granularity = reportQueryRepository.getGranularity(groupDataType);
+    TenantReport report = getReport(source, tenantId);
+
+    synchronized (report) {
+      List<LocalDate> periodStarts =
+          getPeriodStarts(
+              report, new ArrayList<>(report.values.values()), granularity, startDate, endDate);
+
+      Map<String, int[]> series = new TreeMap<>();
+      report.values.forEach(
+          (id, daily) -> {
+            int[] values = new int[periodStarts.size()];
+            addPeriodSums(report, daily, values, periodStarts, granularity, startDate, endDate);
+            if (Arrays.stream(values).anyMatch(value -> value != 0)) {
+              series.merge(
+                  report.labels.get(id),
+                  values,
+                  (existing, added) -> {
+                    Arrays.setAll(existing, i -> existing[i] + added[i]);
+                    return existing;
+                  });
+            }
+          });
+
+      return reportQueryRepository.toSeries(granularity, periodStarts, series);
+    }
+  }
+
+  // poziva se kad su dnevni izvjestaji za datume regenerisani; datumi se oznacavaju tek nakon
+  // commit-a, da se ne bi ponovo ucitali stari podaci
+  public void invalidate(String tenantId, Collection<LocalDate> dates) {
+    Set<LocalDate> staleDates = Set.copyOf(dates);
+    afterCommit(
+        () ->
+            reports
+                .values()
+                .forEach(
+                    tenantReports -> {
+                      TenantReport report = tenantReports.get(tenantId);
+                      if (Objects.nonNull(report)) {
+                        synchronized (report) {
+                          report.staleDates.addAll(staleDates);
+                        }
+                      }
+                    }));
+  }
+
+  public void invalidateTenant(String tenantId) {
+    afterCommit(() -> reports.values().forEach(tenantReports -> tenantReports.remove(tenantId)));
+  }
+
+  public void invalidateAll() {
+    afterCommit(() -> reports.values().forEach(Map::clear));
+  }
+
+  private void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+
+  private TenantReport getReport(ReportSource source, String tenantId) {
+    TenantReport report =
+        reports.get(source).computeIfAbsent(tenantId, key -> new TenantReport());
+
+    synchronized (report) {
+      if (!report.loaded) {
+        reportQueryRepository
+            .findDailyValues(source, null, tenantId)
+            .forEach(report::add);
+        report.loaded = true;
+        report.staleDates.clear();
+      } else if (!report.staleDates.isEmpty()) {
+        report.clear(report.staleDates);
+        reportQueryRepository
+            .findDailyValues(source, report.staleDates, tenantId)
+            .forEach(report::add);
+        report.staleDates.clear();
+      }
+    }
+    return report;
+  }
+
+  private List<LocalDate> getPeriodStarts(
+      TenantReport report,
+      List<int[]> dailyValues,
+      ReportSortEnum granularity,
+      LocalDate startDate,
+      LocalDate endDate) {
+    int firstIndex = Integer.MAX_VALUE;
+    int lastIndex = -1;
+    for (int[] daily : dailyValues) {
+      for (int i = 0; i < daily.length; i++) {
+        if (daily[i] != 0) {
+          firstIndex = Math.min(firstIndex, i);
+          lastIndex = Math.max(lastIndex, i);
+        }
+      }
+    }
+
+    return DateTimeUtil.getReportPeriodStarts(
+        startDate,
+        endDate,
+        lastIndex < 0 ? null : report.firstDate.plusDays(firstIndex),
+        lastIndex < 0 ? null : report.firstDate.plusDays(lastIndex),
+        granularity);
+  }
+
+  // periodi na rubovima raspona se sabiraju samo za dane unutar raspona
+  private void addPeriodSums(
+      TenantReport report,
+      int[] daily,
+      int[] values,
+      List<LocalDate> periodStarts,
+      ReportSortEnum granularity,
+      LocalDate startDate,
+      LocalDate endDate) {
+    for (int i = 0; i < periodStarts.size(); i++) {
+      LocalDate from = periodStarts.get(i);
+      LocalDate to = DateTimeUtil.getNextPeriodStart(from, granularity);
+      if (Objects.nonNull(startDate) && from.isBefore(startDate)) {
+        from = startDate;
+      }
+      if (Objects.nonNull(endDate) && to.isAfter(endDate.plusDays(1))) {
+        to = endDate.plusDays(1);
+      }
+
+      int fromIndex = Math.max(report.indexOf(from), 0);
+      int toIndex = Math.min(report.indexOf(to), daily.length);
+      for (int day = fromIndex; day < toIndex; day++) {
+        values[i] += daily[day];
+      }
+    }
+  }
+
+  private static class TenantReport {
+
+    private boolean loaded;
+    // datum na indeksu 0 svih nizova
+    private LocalDate firstDate;
+    private int numberOfDays;
+    private final Map<Integer, int[]> values = new HashMap<>();
+    private final Map<Integer, String> labels = new HashMap<>();
+    private final Set<LocalDate> staleDates = new HashSet<>();
+
+    private int indexOf(LocalDate date) {
+      return Objects.isNull(firstDate) ? 0 : (int) ChronoUnit.DAYS.between(firstDate, date);
+    }
+
+    private void add(ReportDailyValueDto dailyValue) {
+      ensureCapacity(dailyValue.getDate());
+      values
+          .computeIfAbsent(dailyValue.getSeriesId(), key -> new int[numberOfDays])
+          [indexOf(dailyValue.getDate())] += dailyValue.getValue();
+      labels.put(dailyValue.getSeriesId(), dailyValue.getSeries());
+    }
+
+    private void clear(Collection<LocalDate> dates) {
+      dates.forEach(
+          date -> {
+            int index = indexOf(date);
+            if (index >= 0 && index < numberOfDays) {
+              values.values().forEach(daily -> daily[index] = 0);
+            }
+          });
+    }
+
+    // nizovi se prosiruju unazad ili unaprijed kad stigne datum izvan trenutnog raspona
+    private void ensureCapacity(LocalDate date) {
+      if (Objects.isNull(firstDate)) {
+        firstDate = date;
+        numberOfDays = 1;
+        return;
+      }
+
+      int index = indexOf(date);
+      if (index < 0) {
+        int shift = -index;
+        values.replaceAll(
+            (id, daily) -> {
+              int[] shifted = new int[numberOfDays + shift];
+              System.arraycopy(daily, 0, shifted, shift, numberOfDays);
+              return shifted;
+            });
+        firstDate = date;
+        numberOfDays += shift;
+      } else if (index >= numberOfDays) {
+        // rezerva od mjesec dana da se niz ne kopira za svaki novi dan
+        int newNumberOfDays = Math.max(index + 1, numberOfDays + 31);
+        values.replaceAll((id, daily) -> Arrays.copyOf(daily, newNumberOfDays));
+        numberOfDays = newNumberOfDays;
+      }
+    }
+  }
+}
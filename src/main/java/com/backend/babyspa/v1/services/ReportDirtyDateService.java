@@ -0,0 +1,46 @@
+package com.backend.babyspa.v1.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.babyspa.v1.projections.LocalDateProjection;
+import com.backend.babyspa.v1.repositories.ReportDirtyDateRepository;
+
+@Service
+public class ReportDirtyDateService {
+
+  @Autowired private ReportDirtyDateRepository reportDirtyDateRepository;
+
+  // poziva se u istoj transakciji kao i izmjena rezervacije, pa se datum oznacava samo ako je
+  // izmjena uspjesna. Ponovna oznaka vec oznacenog datuma pomjera marked_at, pa je generisanje
+  // koje je pocelo ranije ne brise.
+  @Transactional
+  public void markDirty(LocalDate date, String tenantId) {
+    reportDirtyDateRepository.markDirty(date, tenantId);
+  }
+
+  public List<LocalDate> findDirtyDates(String tenantId, LocalDate maxDate) {
+    return reportDirtyDateRepository.findDirtyDates(tenantId, maxDate).stream()
+        .map(LocalDateProjection::getDate)
+        .toList();
+  }
+
+  // vrijeme pocetka transakcije u bazi, sa istim satom kojim se upisuje marked_at
+  public LocalDateTime findGenerationStart() {
+    return reportDirtyDateRepository.findTransactionTimestamp();
+  }
+
+  // brisu se samo oznake koje su postojale prije pocetka generisanja; datum oznacen tokom
+  // generisanja ostaje za sljedece generisanje
+  @Transactional
+  public void clear(String tenantId, List<LocalDate> dates, LocalDateTime generationStart) {
+    if (!dates.isEmpty()) {
+      reportDirtyDateRepository.deleteDirtyDates(tenantId, dates, generationStart);
+    }
+  }
+}
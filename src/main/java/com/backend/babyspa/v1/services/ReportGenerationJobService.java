@@ -0,0 +1,135 @@
+package com.backend.babyspa.v1.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import com.backend.babyspa.v1.config.TenantContext;
+import com.backend.babyspa.v1.dtos.ReportGenerationJobDto;
+import com.backend.babyspa.v1.exceptions.BusinessException;
+import com.backend.babyspa.v1.exceptions.NotFoundException;
+import com.backend.babyspa.v1.models.ReportGenerationJob;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class ReportGenerationJobService {
+
+  private static final Duration finishedJobRetention = Duration.ofHours(1);
+
+  @Autowired private ReservationService reservationService;
+
+  @Autowired
+  @Qualifier("reportTaskExecutor")
+  private Executor reportTaskExecutor;
+
+  private final Map<String, ReportGenerationJob> jobsById = new ConcurrentHashMap<>();
+
+  private final Map<String, ReportGenerationJob> activeJobsByTenant = new ConcurrentHashMap<>();
+
+  // isti zahtjev za tenant koji vec ima aktivno generisanje dobija postojeci job, a razlicit se
+  // odbija jer bi oba generisanja mijenjala iste izvjestaje. Ovo vazi samo za HTTP job-ove na
+  // ovoj instanci; sa nocnim scheduler-om i drugim instancama generisanje serijalizuje lock
+  // tenanta u bazi (ReportWatermarkService.lockGeneration), pa job tada ceka.
+  public ReportGenerationJobDto submit(boolean generateForAllDays, LocalDate date, String tenantId) {
+    removeExpiredJobs();
+
+    ReportGenerationJob newJob = new ReportGenerationJob(tenantId, generateForAllDays, date);
+    ReportGenerationJob job = activeJobsByTenant.putIfAbsent(tenantId, newJob);
+
+    if (Objects.nonNull(job)) {
+      if (!job.hasSameRequest(generateForAllDays, date)) {
+        throw new BusinessException(
+            "Generisanje izvještaja je već u toku, job Id: " + job.getJobId() + "!");
+      }
+      return buildReportGenerationJobDto(job);
+    }
+
+    jobsById.put(newJob.getJobId(), newJob);
+    try {
+      reportTaskExecutor.execute(() -> run(newJob));
+    } catch (RuntimeException e) {
+      newJob.fail(e.getMessage());
+      activeJobsByTenant.remove(tenantId, newJob);
+      throw new BusinessException("Nije moguće pokrenuti generisanje izvještaja!");
+    }
+
+    return buildReportGenerationJobDto(newJob);
+  }
+
+  public ReportGenerationJobDto findById(String jobId, String tenantId) {
+    ReportGenerationJob job = jobsById.get(jobId);
+
+    if (Objects.isNull(job) || !job.getTenantId().equals(tenantId)) {
+      throw new NotFoundException("Nije pronađeno generisanje izvještaja sa Id: " + jobId + "!");
+    }
+
+    return buildReportGenerationJobDto(job);
+  }
+
+  private void run(ReportGenerationJob job) {
+    job.start();
+    try {
+      TenantContext.runWithTenant(
+          job.getTenantId(),
+          () -> {
+            if (job.isGenerateForAllDays() || Objects.nonNull(job.getDate())) {
+              reservationService.generateReportForAllDateInReservation(
+                  job.isGenerateForAllDays(), job.getDate(), job.getTenantId(), job);
+            } else {
+              reservationService.generateReportIncremental(job.getTenantId(), job);
+            }
+          });
+      job.complete();
+    } catch (RuntimeException e) {
+      log.error("Report generation {} failed: {}", job.getJobId(), e.getMessage(), e);
+      job.fail(e.getMessage());
+    } finally {
+      activeJobsByTenant.remove(job.getTenantId(), job);
+      removeExpiredJobs();
+    }
+  }
+
+  private void removeExpiredJobs() {
+    LocalDateTime expiredBefore = LocalDateTime.now().minus(finishedJobRetention);
+    jobsById
+        .values()
+        .removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(expiredBefore));
+  }
+
+  private ReportGenerationJobDto buildReportGenerationJobDto(ReportGenerationJob job) {
+    ReportGenerationJobDto reportGenerationJobDto = new ReportGenerationJobDto();
+
+    reportGenerationJobDto.setJobId(job.getJobId());
+    reportGenerationJobDto.setStatus(job.getStatus());
+    reportGenerationJobDto.setGenerateForAllDays(job.isGenerateForAllDays());
+    reportGenerationJobDto.setDate(job.getDate());
+    reportGenerationJobDto.setTotalDates(job.getTotalDates().get());
+    reportGenerationJobDto.setProcessedDates(job.getProcessedDates().get());
+    reportGenerationJobDto.setRowsWritten(job.getRowsWritten().get());
+    reportGenerationJobDto.setCreatedAt(job.getCreatedAt());
+    reportGenerationJobDto.setStartedAt(job.getStartedAt());
+    reportGenerationJobDto.setFinishedAt(job.getFinishedAt());
+    if (Objects.nonNull(job.getStartedAt())) {
+      reportGenerationJobDto.setElapsedMillis(
+          Duration.between(
+                  job.getStartedAt(),
+                  Objects.nonNull(job.getFinishedAt())
+                      ? job.getFinishedAt()
+                      : LocalDateTime.now())
+              .toMillis());
+    }
+    reportGenerationJobDto.setErrorMessage(job.getErrorMessage());
+
+    return reportGenerationJobDto;
+  }
+}
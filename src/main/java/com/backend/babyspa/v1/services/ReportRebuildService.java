@@ -0,0 +1,76 @@
+package com.backend.babyspa.v1.services;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// puno generisanje izvjestaja se upisuje u staging tabele u zasebno commit-anim dijelovima, pa
+// se tek na kraju objavljuje, tako da citaoci nikad ne vide prazne ili djelimicne izvjestaje.
+// Poziva se samo iz transakcije koja drzi lock generisanja tenanta
+// (ReportWatermarkService.lockGeneration), pa staging tabele tenanta puni jedno generisanje.
+// Zato tenant tokom punog generisanja koristi dvije konekcije: transakciju pozivaoca sa lock-om
+// i transakciju trenutnog dijela. Dio ne moze trajati duze od transakcije pozivaoca (npr.
+// timeout tenanta u scheduler-u).
+@Service
+public class ReportRebuildService {
+
+  @Autowired private ReservationDailyReportService reservationDailyReportService;
+
+  @Autowired private ServicePackageDailyReportService servicePackageDailyReportService;
+
+  @Autowired private ReportCacheService reportCacheService;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  public void clearStaging(String tenantId) {
+    inChunkTransaction(
+        () -> {
+          reservationDailyReportService.deleteStagingByTenantId(tenantId);
+          servicePackageDailyReportService.deleteStagingByTenantId(tenantId);
+          return null;
+        });
+  }
+
+  public int generateStagingForRange(
+      LocalDate startDate, LocalDate endDate, String statusTypeCode, String tenantId) {
+    return inChunkTransaction(
+        () ->
+            reservationDailyReportService.generateStagingForRange(
+                    startDate, endDate, statusTypeCode, tenantId)
+                + servicePackageDailyReportService.generateStagingForRange(
+                    startDate, endDate, tenantId));
+  }
+
+  public int publishStaging(String tenantId) {
+    return inChunkTransaction(
+        () -> {
+          reportCacheService.invalidateTenant(tenantId);
+          return reservationDailyReportService.publishStaging(tenantId)
+              + servicePackageDailyReportService.publishStaging(tenantId);
+        });
+  }
+
+  // nova transakcija dobija preostalo vrijeme transakcije pozivaoca; ako je ono isteklo,
+  // getTimeToLiveInSeconds baca TransactionTimedOutException
+  private <T> T inChunkTransaction(Supplier<T> chunk) {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    if (TransactionSynchronizationManager.getResource(entityManagerFactory)
+            instanceof EntityManagerHolder entityManagerHolder
+        && entityManagerHolder.hasTimeout()) {
+      transactionTemplate.setTimeout(entityManagerHolder.getTimeToLiveInSeconds());
+    }
+    return transactionTemplate.execute(status -> chunk.get());
+  }
+}
@@ -0,0 +1,44 @@
+package com.backend.babyspa.v1.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.babyspa.v1.models.ReportWatermark;
+import com.backend.babyspa.v1.repositories.ReportWatermarkRepository;
+
+@Service
+public class ReportWatermarkService {
+
+  @Autowired private ReportWatermarkRepository reportWatermarkRepository;
+
+  // generisanje iz HTTP job-a i iz nocnog scheduler-a (i sa drugih instanci) dijeli iste staging
+  // tabele tenanta, pa se za tenant izvrsava samo jedno generisanje u isto vrijeme
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void lockGeneration(String tenantId) {
+    reportWatermarkRepository.lockGeneration(tenantId);
+  }
+
+  public Optional<LocalDate> findLastGeneratedDate(String tenantId) {
+    return reportWatermarkRepository
+        .findById(tenantId)
+        .map(ReportWatermark::getLastGeneratedDate);
+  }
+
+  @Transactional
+  public void save(String tenantId, LocalDate lastGeneratedDate) {
+    ReportWatermark reportWatermark =
+        reportWatermarkRepository.findById(tenantId).orElseGet(ReportWatermark::new);
+
+    reportWatermark.setTenantId(tenantId);
+    reportWatermark.setLastGeneratedDate(lastGeneratedDate);
+    reportWatermark.setUpdatedAt(LocalDateTime.now());
+
+    reportWatermarkRepository.save(reportWatermark);
+  }
+}
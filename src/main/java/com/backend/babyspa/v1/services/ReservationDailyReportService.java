@@ -2,17 +2,21 @@ package com.backend.babyspa.v1.services;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.backend.babyspa.v1.config.TenantContext;
-import com.backend.babyspa.v1.dtos.ReservationDailyReportDto;
+import com.backend.babyspa.v1.dtos.ReportSeriesDto;
 import com.backend.babyspa.v1.models.ReportSortEnum;
-import com.backend.babyspa.v1.models.ReservationDailyReport;
 import com.backend.babyspa.v1.projections.ReservationDailyReportProjection;
+import com.backend.babyspa.v1.repositories.ReportQueryRepository;
+import com.backend.babyspa.v1.repositories.ReportQueryRepository.ReportSource;
 import com.backend.babyspa.v1.repositories.ReservationDailyReportRepository;
 import com.backend.babyspa.v1.utils.DateTimeUtil;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,24 +26,14 @@ public class ReservationDailyReportService {
 
   @Autowired private ReservationDailyReportRepository reservationDailyReportRepository;
 
-  @Autowired private BabyService babyService;
+  @Autowired private ReportQueryRepository reportQueryRepository;
 
-  @Transactional
-  public ReservationDailyReport save(
-      ReservationDailyReportDto reservationDailyReportDto, String tenantId) {
-
-    ReservationDailyReport reservationDailyReport = new ReservationDailyReport();
-
-    if (Objects.nonNull(reservationDailyReportDto.getStatus())) {
-      reservationDailyReport.setStatus(reservationDailyReportDto.getStatus());
-    }
-    reservationDailyReport.setNumberOfReservation(
-        reservationDailyReportDto.getNumberOfReservation());
-    reservationDailyReport.setDate(reservationDailyReportDto.getDate());
-    reservationDailyReport.setBaby(babyService.findById(reservationDailyReportDto.getBabyId()));
-    reservationDailyReport.setTenantId(tenantId);
+  @Autowired private ReportCacheService reportCacheService;
 
-    return reservationDailyReportRepository.save(reservationDailyReport);
+  @Transactional
+  public int generateForDate(LocalDate date, String statusTypeCode, String tenantId) {
+    return reservationDailyReportRepository.insertDailyReportForDate(
+        date, date.atStartOfDay(), date.plusDays(1).atStartOfDay(), statusTypeCode, tenantId, false);
   }
 
   public List<ReservationDailyReportProjection> findAll(
@@ -48,66 +42,113 @@ public class ReservationDailyReportService {
       LocalDateTime startRangeDate,
       LocalDateTime endRangeDate,
       String groupDataType) {
-
-    if (Objects.isNull(startRangeDate) && Objects.nonNull(endRangeDate)) {
-      startRangeDate = DateTimeUtil.getDateTimeFromString("1999-01-01 00:00:00");
-    } else if (Objects.nonNull(startRangeDate) && Objects.isNull(endRangeDate)) {
-      endRangeDate = LocalDateTime.now().plusMinutes(15);
+    // izvjestaj za jednu bebu nije u memoriji, pa se cita iz baze
+    if (Objects.isNull(babyId)) {
+      return reportCacheService.findAll(
+          ReservationDailyReportProjection.class,
+          ReportSource.reservation,
+          groupDataType,
+          statusId,
+          Objects.nonNull(startRangeDate) ? startRangeDate.toLocalDate() : null,
+          Objects.nonNull(endRangeDate) ? endRangeDate.toLocalDate() : null,
+          TenantContext.getTenant());
     }
 
-    if (Objects.isNull(startRangeDate) && Objects.isNull(endRangeDate)) {
-      if (groupDataType.equals(ReportSortEnum.day.name())) {
-        return reservationDailyReportRepository.findAllByStatusIdAndBabyId(
-            statusId, babyId, TenantContext.getTenant());
-      } else if (groupDataType.equals(ReportSortEnum.month.name())) {
-        return reservationDailyReportRepository.findAllByStatusIdAndBabyIdGroupByMonth(
-            statusId, babyId, TenantContext.getTenant());
-      } else if (groupDataType.equals(ReportSortEnum.year.name())) {
-        return reservationDailyReportRepository.findAllByStatusIdAndBabyIdGroupByYear(
-            statusId, babyId, TenantContext.getTenant());
-      }
-
-    } else {
-      if (groupDataType.equals(ReportSortEnum.day.name())) {
-        return reservationDailyReportRepository.findAllByStatusIdAndBabyIdAndStartDateAndEndDate(
-            statusId,
-            babyId,
-            startRangeDate.toLocalDate(),
-            endRangeDate.toLocalDate(),
-            TenantContext.getTenant());
-      } else if (groupDataType.equals(ReportSortEnum.month.name())) {
-        return reservationDailyReportRepository
-            .findAllByStatusIdAndBabyIdAndStartDateAndEndDateGroupByMonth(
-                statusId,
-                babyId,
-                startRangeDate.toLocalDate(),
-                endRangeDate.toLocalDate(),
-                TenantContext.getTenant());
-      } else if (groupDataType.equals(ReportSortEnum.year.name())) {
-        return reservationDailyReportRepository
-            .findAllByStatusIdAndBabyIdAndStartDateAndEndDateGroupByYear(
-                statusId,
-                babyId,
-                startRangeDate.toLocalDate(),
-                endRangeDate.toLocalDate(),
-                TenantContext.getTenant());
-      }
+    Map<String, Integer> filters = new HashMap<>();
+    filters.put("status_id", statusId);
+    filters.put("baby_id", babyId);
+
+    return reportQueryRepository.findAll(
+        ReservationDailyReportProjection.class,
+        ReportSource.reservation,
+        groupDataType,
+        filters,
+        Objects.nonNull(startRangeDate) ? startRangeDate.toLocalDate() : null,
+        Objects.nonNull(endRangeDate) ? endRangeDate.toLocalDate() : null,
+        TenantContext.getTenant());
+  }
+
+  public ReportSeriesDto findAllSeries(
+      Integer babyId,
+      LocalDateTime startRangeDate,
+      LocalDateTime endRangeDate,
+      String groupDataType) {
+    if (Objects.isNull(babyId)) {
+      return reportCacheService.findSeries(
+          ReportSource.reservation,
+          groupDataType,
+          Objects.nonNull(startRangeDate) ? startRangeDate.toLocalDate() : null,
+          Objects.nonNull(endRangeDate) ? endRangeDate.toLocalDate() : null,
+          TenantContext.getTenant());
     }
 
-    return null;
+    Map<String, Integer> filters = new HashMap<>();
+    filters.put("baby_id", babyId);
+
+    return reportQueryRepository.findSeries(
+        ReportSource.reservation,
+        groupDataType,
+        filters,
+        Objects.nonNull(startRangeDate) ? startRangeDate.toLocalDate() : null,
+        Objects.nonNull(endRangeDate) ? endRangeDate.toLocalDate() : null,
+        TenantContext.getTenant());
   }
 
-  public boolean existsByDateAndTenantId(LocalDate date, String tenantId) {
-    return reservationDailyReportRepository.existsByDate(date);
+  @Transactional
+  public int generateStagingForRange(
+      LocalDate startDate, LocalDate endDate, String statusTypeCode, String tenantId) {
+    return reservationDailyReportRepository.insertStagingForRange(
+        startDate.atStartOfDay(), endDate.atStartOfDay(), statusTypeCode, tenantId, false);
+  }
+
+  @Transactional
+  public int publishStaging(String tenantId) {
+    reservationDailyReportRepository.deleteAllByTenantId(tenantId);
+    int numberOfRows = reservationDailyReportRepository.publishStaging(tenantId);
+    reservationDailyReportRepository.deleteStagingByTenantId(tenantId);
+    rebuildRollups(tenantId);
+
+    return numberOfRows;
+  }
+
+  @Transactional
+  public void rebuildRollups(String tenantId) {
+    reservationDailyReportRepository.deleteRollupsByTenantId(tenantId);
+    reservationDailyReportRepository.insertRollups(ReportSortEnum.month.name(), null, null, tenantId);
+    reservationDailyReportRepository.insertRollups(ReportSortEnum.year.name(), null, null, tenantId);
+  }
+
+  // dnevni izvjestaji generisani prije uvodjenja zbirova nemaju mjesecne i godisnje redove
+  public boolean isMissingRollups(String tenantId) {
+    return reservationDailyReportRepository.isMissingRollups(tenantId);
+  }
+
+  // mjesecni i godisnji zbirovi se ponovo racunaju samo za periode u kojima su izmijenjeni datumi
+  @Transactional
+  public void refreshRollups(Collection<LocalDate> dates, String tenantId) {
+    for (ReportSortEnum period : List.of(ReportSortEnum.month, ReportSortEnum.year)) {
+      dates.stream()
+          .map(date -> DateTimeUtil.getPeriodStart(date, period))
+          .distinct()
+          .forEach(
+              periodStart -> {
+                reservationDailyReportRepository.deleteRollupsForPeriod(period.name(), periodStart, tenantId);
+                reservationDailyReportRepository.insertRollups(
+                    period.name(),
+                    periodStart,
+                    DateTimeUtil.getNextPeriodStart(periodStart, period),
+                    tenantId);
+              });
+    }
   }
 
   @Transactional
-  public void deleteAllByTenantId(String tenantId) {
-    reservationDailyReportRepository.deleteAll();
+  public void deleteStagingByTenantId(String tenantId) {
+    reservationDailyReportRepository.deleteStagingByTenantId(tenantId);
   }
 
   @Transactional
   public void deleteByDateAndTenantId(LocalDate date, String tenantId) {
-    reservationDailyReportRepository.deleteByDate(date);
+    reservationDailyReportRepository.deleteByDateAndTenantId(date, tenantId);
   }
 }
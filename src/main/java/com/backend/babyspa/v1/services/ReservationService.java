@@ -2,15 +2,25 @@ package com.backend.babyspa.v1.services;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import com.backend.babyspa.v1.dtos.*;
 import com.backend.babyspa.v1.exceptions.BusinessException;
 import com.backend.babyspa.v1.projections.LocalDateProjection;
+import com.backend.babyspa.v1.projections.ReservationTableProjection;
 import com.backend.babyspa.v1.utils.DateTimeUtil;
 import com.backend.babyspa.v1.utils.SecurityUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -20,9 +30,12 @@ import org.springframework.stereotype.Service;
 import com.backend.babyspa.v1.config.TenantContext;
 import com.backend.babyspa.v1.exceptions.NotFoundException;
 import com.backend.babyspa.v1.models.Arrangement;
+import com.backend.babyspa.v1.models.ReportGenerationJob;
 import com.backend.babyspa.v1.models.Reservation;
-import com.backend.babyspa.v1.models.ServicePackage;
+import com.backend.babyspa.v1.models.ReservationChangedEvent;
+import com.backend.babyspa.v1.models.ReservationChangedEvent.ReservationState;
 import com.backend.babyspa.v1.models.Status;
+import com.backend.babyspa.v1.models.StatusType;
 import com.backend.babyspa.v1.repositories.ReservationRepository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,14 +50,22 @@ public class ReservationService {
 
   @Autowired private ReservationDailyReportService reservationDailyReportService;
 
-  @Autowired private ServicePackageService servicePackageService;
-
   @Autowired private ServicePackageDailyReportService servicePackageDailyReportService;
 
   @Autowired private ReservationHistoryStatusService reservationHistoryStatusService;
 
+  @Autowired private ReportDirtyDateService reportDirtyDateService;
+
+  @Autowired private ReportWatermarkService reportWatermarkService;
+
+  @Autowired private ReportRebuildService reportRebuildService;
+
+  @Autowired private ReportCacheService reportCacheService;
+
   @Autowired private SecurityUtil securityUtil;
 
+  @Autowired private ApplicationEventPublisher applicationEventPublisher;
+
   private static final String reservationReserved = "term_reserved";
   private static final String reservationUsed = "term_used";
   private static final String reservationCanceled = "term_canceled";
@@ -82,29 +103,12 @@ public class ReservationService {
           "Nije moguće napraviti rezervaciju jer je iskorišten maksimalan broj termina!");
     }
 
-    // ovdje gledamo da li ima vec jedna rezervacija za dati aranžman jer svaki paket ima ogranicen
-    // broj trajanja dana pa nije moguce napraviti rezervaciju ako je isteklo trajanje
-    if (reservationRepository.existsByArrangementAndIsDeleted(arrangement, false)) {
-      Reservation firstReservation =
-          reservationRepository
-              .findFirstByArrangementAndIsDeletedOrderByReservationIdAsc(arrangement, false)
-              .orElseThrow(
-                  () ->
-                      new NotFoundException(
-                          "Nije pronađena prva rezervacija za aranžman čiji je Id: "
-                              + arrangement.getArrangementId()
-                              + "!"));
-      if ((firstReservation
-          .getStartDate()
-          .plusDays(
-              arrangement.getServicePackage().getServicePackageDurationDays()
-                  + (Objects.nonNull(arrangement.getExtendDurationDays())
-                      ? arrangement.getExtendDurationDays()
-                      : 0))
-          .isBefore(createReservationDto.getStartDate()))) {
-        throw new BusinessException(
-            "Nije moguće napraviti rezervaciju jer je broj dana koliko traje paket istekao!");
-      }
+    // svaki paket ima ogranicen broj dana trajanja od prve rezervacije, pa nije moguce napraviti
+    // rezervaciju ako je isteklo trajanje; validUntil je null dok aranzman nema rezervacija
+    if (Objects.nonNull(arrangement.getValidUntil())
+        && arrangement.getValidUntil().isBefore(createReservationDto.getStartDate())) {
+      throw new BusinessException(
+          "Nije moguće napraviti rezervaciju jer je broj dana koliko traje paket istekao!");
     }
 
     Reservation reservation = new Reservation();
@@ -121,6 +125,11 @@ public class ReservationService {
 
     arrangementService.decreaseRemainingTerm(arrangement);
     reservationRepository.save(reservation);
+    if (Objects.isNull(arrangement.getFirstReservationAt())) {
+      arrangementService.setFirstReservation(arrangement, reservation.getStartDate());
+    }
+    markReportDateDirty(reservation);
+    publishReservationChanged(reservation, null, ReservationState.of(reservation));
 
     return buildReservationFindAllDtoFromReservation(reservation);
   }
@@ -130,6 +139,7 @@ public class ReservationService {
     Reservation reservation = findById(updateReservationDto.getReservationId());
     Status status = statusService.findById(updateReservationDto.getStatusId());
     Status statusBeforeUpdate = reservation.getStatus();
+    ReservationState stateBeforeUpdate = ReservationState.of(reservation);
 
     if (reservation.getStatus().getStatusCode().equals(reservationCanceled)
         && reservation.getArrangement().getRemainingTerm() == 0
@@ -155,6 +165,8 @@ public class ReservationService {
     reservationRepository.save(reservation);
     reservationHistoryStatusService.save(
         reservation, statusBeforeUpdate, securityUtil.getCurrentUser());
+    markReportDateDirty(reservation);
+    publishReservationChanged(reservation, stateBeforeUpdate, ReservationState.of(reservation));
 
     return buildReservationFindAllDtoFromReservation(reservation);
   }
@@ -178,26 +190,33 @@ public class ReservationService {
     reservation.setDeletedAt(LocalDateTime.now());
 
     reservationRepository.save(reservation);
+    updateFirstReservation(reservation);
+    markReportDateDirty(reservation);
+    publishReservationChanged(reservation, ReservationState.of(reservation), null);
 
     return reservationId;
   }
 
+  @Transactional
   public int reservationCanceled(int reservationId) {
     Reservation reservation = findById(reservationId);
     Status status = statusService.findByStatusCode(reservationCanceled);
     Status statusBeforeUpdate = reservation.getStatus();
+    ReservationState stateBeforeUpdate = ReservationState.of(reservation);
 
     arrangementService.increaseRemainingTerm(reservation.getArrangement());
     reservation.setStatus(status);
     reservationRepository.save(reservation);
     reservationHistoryStatusService.save(
         reservation, statusBeforeUpdate, securityUtil.getCurrentUser());
+    markReportDateDirty(reservation);
+    publishReservationChanged(reservation, stateBeforeUpdate, ReservationState.of(reservation));
 
     return reservationId;
   }
 
   public List<ReservationFindAllDto> findAllList() {
-    return reservationRepository.findByIsDeleted(false).stream()
+    return reservationRepository.findByIsDeletedWithDetails(false).stream()
         .map(this::buildReservationFindAllDtoFromReservation)
         .toList();
   }
@@ -208,9 +227,19 @@ public class ReservationService {
       Integer statusId,
       Integer arrangementId,
       LocalDateTime startDate,
-      LocalDateTime endDate) {
-    List<ReservationFindAllTableDto> reservationFindAllDtos;
-    List<Reservation> reservations;
+      LocalDateTime endDate,
+      Integer cursorSortBucket,
+      LocalDateTime cursorStartDate,
+      Integer cursorReservationId) {
+    boolean hasCursor = Objects.nonNull(cursorSortBucket);
+
+    // kursor se sastoji od (sort_bucket, start_date, reservation_id) posljednjeg reda sa prethodne
+    // stranice i mora biti poslan kompletan
+    if (hasCursor != Objects.nonNull(cursorStartDate)
+        || hasCursor != Objects.nonNull(cursorReservationId)) {
+      throw new BusinessException(
+          "Kursor za paginaciju mora sadržavati sortBucket, startDate i reservationId!");
+    }
 
     if (Objects.isNull(startDate) && Objects.nonNull(endDate)) {
       startDate = DateTimeUtil.getDateTimeFromString("1999-01-01 00:00:00");
@@ -218,31 +247,34 @@ public class ReservationService {
       endDate = LocalDateTime.now().plusMinutes(15);
     }
 
-    if (Objects.isNull(startDate) && Objects.isNull(endDate)) {
-      reservations =
-          reservationRepository.findAllReservationNative(
-              statusId, arrangementId, TenantContext.getTenant(), false);
-    } else {
-      reservations =
-          reservationRepository.findAllReservationNativeWithStartDateAndDate(
-              statusId, arrangementId, startDate, endDate, TenantContext.getTenant(), false);
-    }
-
-    reservationFindAllDtos =
-        reservations.stream().map(this::buildReservationFindAllTableDtoFromReservation).toList();
-
     Pageable pageable = PageRequest.of(page, size);
-    int start = (int) pageable.getOffset();
-    int end = Math.min((start + pageable.getPageSize()), reservationFindAllDtos.size());
-    if (start > end) {
-      start = end = 0;
-    }
-
-    final Page<ReservationFindAllTableDto> pageItem =
-        new PageImpl<>(
-            reservationFindAllDtos.subList(start, end), pageable, reservationFindAllDtos.size());
-
-    return pageItem;
+    LocalDateTime now = LocalDateTime.now();
+    String tenantId = TenantContext.getTenant();
+
+    List<ReservationFindAllTableDto> reservationFindAllDtos =
+        reservationRepository
+            .findAllReservationPageNative(
+                statusId,
+                arrangementId,
+                startDate,
+                endDate,
+                tenantId,
+                false,
+                now,
+                cursorSortBucket,
+                cursorStartDate,
+                cursorReservationId,
+                pageable.getPageSize(),
+                hasCursor ? 0 : pageable.getOffset())
+            .stream()
+            .map(this::buildReservationFindAllTableDtoFromProjection)
+            .toList();
+
+    long total =
+        reservationRepository.countAllReservationNative(
+            statusId, arrangementId, startDate, endDate, tenantId, false);
+
+    return new PageImpl<>(reservationFindAllDtos, pageable, total);
   }
 
   public List<Reservation> findAllByArrangementId(int arrangementId) {
@@ -251,66 +283,62 @@ public class ReservationService {
   }
 
   @Transactional
-  public void generateReservationReport(LocalDate date, String tenantId) {
-    List<Status> statuses = statusService.findAllByStatusTypeCode(reservationStatusType);
-
-    if (!statuses.isEmpty()) {
-      statuses.forEach(
-          status -> {
-            List<Object[]> usegesPerBaby =
-                reservationRepository.countReservationPerBabyAndStatus(
-                    date, status.getStatusId(), tenantId, false);
-            if (Objects.nonNull(usegesPerBaby)) {
-              usegesPerBaby.forEach(
-                  useges -> {
-                    ReservationDailyReportDto reservationDailyReportDto =
-                        new ReservationDailyReportDto();
-                    reservationDailyReportDto.setDate(date);
-                    reservationDailyReportDto.setBabyId(((Number) useges[1]).intValue());
-                    reservationDailyReportDto.setNumberOfReservation(
-                        ((Number) useges[0]).intValue());
-                    reservationDailyReportDto.setStatus(status);
-                    reservationDailyReportService.save(reservationDailyReportDto, tenantId);
-                  });
-            }
-          });
-    }
+  public int generateReservationReport(LocalDate date, String tenantId) {
+    return reservationDailyReportService.generateForDate(date, reservationStatusType, tenantId);
   }
 
   @Transactional
-  public void updateReservationWithStatusCreatedToStatusUsed() {
-    LocalDateTime dayBefore = LocalDateTime.now().minusDays(1);
+  public void updateReservationWithStatusCreatedToStatusUsed(String tenantId) {
+    LocalDate dayBefore = LocalDate.now().minusDays(1);
     Status statusReservationReserved = statusService.findByStatusCode(reservationReserved);
     Status statusReservationUsed = statusService.findByStatusCode(reservationUsed);
 
     reservationRepository
-        .findByStartDateAndStatusCode(dayBefore, statusReservationReserved.getStatusId(), false)
+        .findByStartDateAndStatusCode(
+            dayBefore.atStartOfDay(),
+            dayBefore.plusDays(1).atStartOfDay(),
+            statusReservationReserved.getStatusId(),
+            false,
+            tenantId)
         .forEach(reservation -> updateReservationStatus(reservation, statusReservationUsed));
   }
 
   private void updateReservationStatus(Reservation reservation, Status status) {
     reservation.setStatus(status);
     reservationRepository.save(reservation);
+    markReportDateDirty(reservation);
   }
 
-  @Transactional
-  public void generateServicePackageReport(LocalDate date, String tenantId) {
-    List<ServicePackage> servicePackages = servicePackageService.findAllByTenantForReport(tenantId);
-
-    if (!servicePackages.isEmpty()) {
-      servicePackages.forEach(
-          servicePackage -> {
-            ServicePackageDailyReportDto servicePackageDailyReportDto =
-                new ServicePackageDailyReportDto();
-            int usedPackages =
-                reservationRepository.countServicePackageByStartDateAndServicePackageId(
-                    date, servicePackage.getServicePackageId(), tenantId, false);
-            servicePackageDailyReportDto.setNumberOfUsedPackages(usedPackages);
-            servicePackageDailyReportDto.setDate(date);
-            servicePackageDailyReportDto.setServicePackage(servicePackage);
-            servicePackageDailyReportService.save(servicePackageDailyReportDto, tenantId);
-          });
+  private void markReportDateDirty(Reservation reservation) {
+    reportDirtyDateService.markDirty(
+        reservation.getStartDate().toLocalDate(), reservation.getTenantId());
+  }
+
+  // ako je obrisana rezervacija od koje aranzman vazi, vazenje se racuna od sljedece prve
+  private void updateFirstReservation(Reservation deletedReservation) {
+    Arrangement arrangement = deletedReservation.getArrangement();
+    if (!deletedReservation.getStartDate().equals(arrangement.getFirstReservationAt())) {
+      return;
     }
+
+    arrangementService.setFirstReservation(
+        arrangement,
+        reservationRepository
+            .findFirstByArrangementAndIsDeletedOrderByReservationIdAsc(arrangement, false)
+            .map(Reservation::getStartDate)
+            .orElse(null));
+  }
+
+  // brojaci danasnjih rezervacija se azuriraju tek nakon commit-a
+  private void publishReservationChanged(
+      Reservation reservation, ReservationState previous, ReservationState current) {
+    applicationEventPublisher.publishEvent(
+        new ReservationChangedEvent(reservation.getTenantId(), previous, current));
+  }
+
+  @Transactional
+  public int generateServicePackageReport(LocalDate date, String tenantId) {
+    return servicePackageDailyReportService.generateForDate(date, tenantId);
   }
 
   private ReservationFindAllDto buildReservationFindAllDtoFromReservation(Reservation reservation) {
@@ -328,30 +356,35 @@ public class ReservationService {
     return reservationFindAllDto;
   }
 
-  private ReservationFindAllTableDto buildReservationFindAllTableDtoFromReservation(
-      Reservation reservation) {
+  private ReservationFindAllTableDto buildReservationFindAllTableDtoFromProjection(
+      ReservationTableProjection projection) {
     ReservationFindAllTableDto reservationFindAllTableDto = new ReservationFindAllTableDto();
 
-    reservationFindAllTableDto.setReservationId(reservation.getReservationId());
-    reservationFindAllTableDto.setArrangementId(reservation.getArrangement().getArrangementId());
+    reservationFindAllTableDto.setReservationId(projection.getReservationId());
+    reservationFindAllTableDto.setArrangementId(projection.getArrangementId());
     reservationFindAllTableDto.setBabyDetails(
         new ShortDetailsDto(
-            reservation.getArrangement().getBaby().getBabyId(),
-            reservation.getArrangement().getBaby().getBabyName()
-                + (Objects.nonNull(reservation.getArrangement().getBaby().getBabySurname())
-                    ? " " + reservation.getArrangement().getBaby().getBabySurname()
+            projection.getBabyId(),
+            projection.getBabyName()
+                + (Objects.nonNull(projection.getBabySurname())
+                    ? " " + projection.getBabySurname()
                     : "")
                 + " ("
-                + reservation.getArrangement().getBaby().getPhoneNumber()
+                + projection.getPhoneNumber()
                 + ")"));
-    reservationFindAllTableDto.setRemainingTerm(reservation.getArrangement().getRemainingTerm());
-    reservationFindAllTableDto.setStatus(reservation.getStatus());
-    reservationFindAllTableDto.setStartDate(reservation.getStartDate());
-    reservationFindAllTableDto.setEndDate(reservation.getEndDate());
-    reservationFindAllTableDto.setCreatedAt(reservation.getCreatedAt());
-    reservationFindAllTableDto.setServicePackageName(
-        reservation.getArrangement().getServicePackage().getServicePackageName());
-    reservationFindAllTableDto.setNote(reservation.getNote());
+    reservationFindAllTableDto.setRemainingTerm(projection.getRemainingTerm());
+    reservationFindAllTableDto.setStatus(
+        new Status(
+            projection.getStatusId(),
+            projection.getStatusName(),
+            projection.getStatusCode(),
+            new StatusType(projection.getStatusTypeId(), projection.getStatusTypeCode())));
+    reservationFindAllTableDto.setStartDate(projection.getStartDate());
+    reservationFindAllTableDto.setEndDate(projection.getEndDate());
+    reservationFindAllTableDto.setCreatedAt(projection.getCreatedAt());
+    reservationFindAllTableDto.setServicePackageName(projection.getServicePackageName());
+    reservationFindAllTableDto.setNote(projection.getNote());
+    reservationFindAllTableDto.setSortBucket(projection.getSortBucket());
 
     return reservationFindAllTableDto;
   }
@@ -365,33 +398,111 @@ public class ReservationService {
   @Transactional
   public void generateReportForAllDateInReservation(
       boolean generateForAllDays, LocalDate date, String tenantId) {
-    if (generateForAllDays) {
-      reservationDailyReportService.deleteAllByTenantId(tenantId);
-      servicePackageDailyReportService.deleteAllByTenantId(tenantId);
+    generateReportForAllDateInReservation(
+        generateForAllDays, date, tenantId, new ReportGenerationJob(tenantId, generateForAllDays, date));
+  }
 
+  @Transactional
+  public void generateReportForAllDateInReservation(
+      boolean generateForAllDays, LocalDate date, String tenantId, ReportGenerationJob job) {
+    reportWatermarkService.lockGeneration(tenantId);
+    if (generateForAllDays) {
       LocalDate currentDate = LocalDate.now();
-      List<LocalDate> allDatesFromReservation =
+      LocalDateTime generationStart = reportDirtyDateService.findGenerationStart();
+      SortedMap<YearMonth, Long> numberOfDatesPerMonth =
           reservationRepository
               .findDistinctReservationDates(currentDate.atStartOfDay(), tenantId, false)
               .stream()
               .map(LocalDateProjection::getDate)
-              .toList();
-
-      allDatesFromReservation.forEach(
-          x -> {
-            generateReservationReport(x, tenantId);
-            generateServicePackageReport(x, tenantId);
+              .collect(
+                  Collectors.groupingBy(YearMonth::from, TreeMap::new, Collectors.counting()));
+      job.addTotalDates(
+          numberOfDatesPerMonth.values().stream().mapToInt(Long::intValue).sum());
+
+      // izvjestaji se generisu u staging tabele po mjesecima i objavljuju tek kad su kompletni
+      reportRebuildService.clearStaging(tenantId);
+      numberOfDatesPerMonth.forEach(
+          (month, numberOfDates) -> {
+            LocalDate nextMonthStart = month.plusMonths(1).atDay(1);
+            int numberOfRows =
+                reportRebuildService.generateStagingForRange(
+                    month.atDay(1),
+                    nextMonthStart.isBefore(currentDate) ? nextMonthStart : currentDate,
+                    reservationStatusType,
+                    tenantId);
+            job.addProgress(numberOfDates.intValue(), numberOfRows);
           });
+      reportRebuildService.publishStaging(tenantId);
+
+      reportDirtyDateService.clear(
+          tenantId,
+          reportDirtyDateService.findDirtyDates(tenantId, currentDate.minusDays(1)),
+          generationStart);
+      reportWatermarkService.save(tenantId, currentDate.minusDays(1));
     } else {
-      if (reservationDailyReportService.existsByDateAndTenantId(date, tenantId)) {
-        reservationDailyReportService.deleteByDateAndTenantId(date, tenantId);
-      }
-      if (servicePackageDailyReportService.existsByDateAndTenantId(date, tenantId)) {
-        servicePackageDailyReportService.deleteByDateAndTenantId(date, tenantId);
-      }
+      job.addTotalDates(1);
+      generateReportForDate(date, tenantId, job);
+      refreshReportRollups(List.of(date), tenantId);
+    }
+  }
+
+  private void generateReportForDate(LocalDate date, String tenantId, ReportGenerationJob job) {
+    reservationDailyReportService.deleteByDateAndTenantId(date, tenantId);
+    servicePackageDailyReportService.deleteByDateAndTenantId(date, tenantId);
+
+    int numberOfRows =
+        generateServicePackageReport(date, tenantId) + generateReservationReport(date, tenantId);
+    reportCacheService.invalidate(tenantId, List.of(date));
+    job.addProgress(1, numberOfRows);
+  }
+
+  private void refreshReportRollups(Collection<LocalDate> dates, String tenantId) {
+    reservationDailyReportService.refreshRollups(dates, tenantId);
+    servicePackageDailyReportService.refreshRollups(dates, tenantId);
+  }
+
+  @Transactional
+  public void generateReportIncremental(String tenantId) {
+    generateReportIncremental(tenantId, new ReportGenerationJob(tenantId, false, null));
+  }
 
-      generateServicePackageReport(date, tenantId);
-      generateReservationReport(date, tenantId);
+  // generisu se samo danasnji datum i datumi na kojima je bilo izmjena rezervacija od posljednjeg
+  // generisanja, dok puno generisanje ostaje dostupno kroz generateReportForAllDateInReservation
+  @Transactional
+  public void generateReportIncremental(String tenantId, ReportGenerationJob job) {
+    reportWatermarkService.lockGeneration(tenantId);
+    LocalDate currentDate = LocalDate.now();
+    LocalDateTime generationStart = reportDirtyDateService.findGenerationStart();
+    Optional<LocalDate> lastGeneratedDate = reportWatermarkService.findLastGeneratedDate(tenantId);
+
+    if (lastGeneratedDate.isEmpty()) {
+      generateReportForAllDateInReservation(true, null, tenantId, job);
+      lastGeneratedDate = Optional.of(currentDate.minusDays(1));
     }
+
+    if (reservationDailyReportService.isMissingRollups(tenantId)) {
+      reservationDailyReportService.rebuildRollups(tenantId);
+    }
+    if (servicePackageDailyReportService.isMissingRollups(tenantId)) {
+      servicePackageDailyReportService.rebuildRollups(tenantId);
+    }
+
+    List<LocalDate> dirtyDates = reportDirtyDateService.findDirtyDates(tenantId, currentDate);
+    SortedSet<LocalDate> datesToGenerate = new TreeSet<>(dirtyDates);
+    datesToGenerate.add(currentDate);
+
+    // ako scheduler nije radio neku noc, nadoknadjuju se i dani od posljednjeg generisanja
+    for (LocalDate date = lastGeneratedDate.get().plusDays(1);
+        date.isBefore(currentDate);
+        date = date.plusDays(1)) {
+      datesToGenerate.add(date);
+    }
+
+    job.addTotalDates(datesToGenerate.size());
+    datesToGenerate.forEach(date -> generateReportForDate(date, tenantId, job));
+    refreshReportRollups(datesToGenerate, tenantId);
+
+    reportDirtyDateService.clear(tenantId, dirtyDates, generationStart);
+    reportWatermarkService.save(tenantId, currentDate);
   }
 }
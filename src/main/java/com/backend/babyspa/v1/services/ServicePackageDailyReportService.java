@@ -2,6 +2,7 @@ package com.backend.babyspa.v1.services;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 
@@ -9,10 +10,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.backend.babyspa.v1.config.TenantContext;
-import com.backend.babyspa.v1.dtos.ServicePackageDailyReportDto;
+import com.backend.babyspa.v1.dtos.ReportSeriesDto;
 import com.backend.babyspa.v1.models.ReportSortEnum;
-import com.backend.babyspa.v1.models.ServicePackageDailyReport;
 import com.backend.babyspa.v1.projections.ServicePackagesDailyReportProjection;
+import com.backend.babyspa.v1.repositories.ReportQueryRepository.ReportSource;
 import com.backend.babyspa.v1.repositories.ServicePackageDailyReportRepository;
 import com.backend.babyspa.v1.utils.DateTimeUtil;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,20 +23,12 @@ public class ServicePackageDailyReportService {
 
   @Autowired private ServicePackageDailyReportRepository servicePackageDailyReportRepository;
 
-  @Transactional
-  public ServicePackageDailyReport save(
-      ServicePackageDailyReportDto servicePackageDailyReportDto, String tenantId) {
-    ServicePackageDailyReport servicePackageDailyReport = new ServicePackageDailyReport();
-
-    if (Objects.nonNull(servicePackageDailyReportDto.getServicePackage())) {
-      servicePackageDailyReport.setServicePackage(servicePackageDailyReportDto.getServicePackage());
-    }
-    servicePackageDailyReport.setNumberOfUsedPackages(
-        servicePackageDailyReportDto.getNumberOfUsedPackages());
-    servicePackageDailyReport.setDate(servicePackageDailyReportDto.getDate());
-    servicePackageDailyReport.setTenantId(tenantId);
+  @Autowired private ReportCacheService reportCacheService;
 
-    return servicePackageDailyReportRepository.save(servicePackageDailyReport);
+  @Transactional
+  public int generateForDate(LocalDate date, String tenantId) {
+    return servicePackageDailyReportRepository.insertDailyReportForDate(
+        date, date.atStartOfDay(), date.plusDays(1).atStartOfDay(), tenantId, false);
   }
 
   public List<ServicePackagesDailyReportProjection> findAll(
@@ -43,61 +36,81 @@ public class ServicePackageDailyReportService {
       LocalDateTime startRangeDate,
       LocalDateTime endRangeDate,
       String groupDataType) {
-    if (Objects.isNull(startRangeDate) && Objects.nonNull(endRangeDate)) {
-      startRangeDate = DateTimeUtil.getDateTimeFromString("1999-01-01 00:00:00");
-    } else if (Objects.nonNull(startRangeDate) && Objects.isNull(endRangeDate)) {
-      endRangeDate = LocalDateTime.now().plusMinutes(15);
-    }
+    return reportCacheService.findAll(
+        ServicePackagesDailyReportProjection.class,
+        ReportSource.servicePackage,
+        groupDataType,
+        servicePackageId,
+        Objects.nonNull(startRangeDate) ? startRangeDate.toLocalDate() : null,
+        Objects.nonNull(endRangeDate) ? endRangeDate.toLocalDate() : null,
+        TenantContext.getTenant());
+  }
 
-    if (Objects.isNull(startRangeDate) && Objects.isNull(endRangeDate)) {
-      if (groupDataType.equals(ReportSortEnum.day.name())) {
-        return servicePackageDailyReportRepository.findAllByServicePackageId(
-            servicePackageId, TenantContext.getTenant());
-      } else if (groupDataType.equals(ReportSortEnum.month.name())) {
-        return servicePackageDailyReportRepository.findAllByServicePackageIdGroupByMonth(
-            servicePackageId, TenantContext.getTenant());
-      } else if (groupDataType.equals(ReportSortEnum.year.name())) {
-        return servicePackageDailyReportRepository.findAllByServicePackageIdGroupByYear(
-            servicePackageId, TenantContext.getTenant());
-      }
-
-    } else {
-      if (groupDataType.equals(ReportSortEnum.day.name())) {
-        return servicePackageDailyReportRepository.findAllByServicePackageIdAndStartDateAndEndDate(
-            servicePackageId,
-            startRangeDate.toLocalDate(),
-            endRangeDate.toLocalDate(),
-            TenantContext.getTenant());
-      } else if (groupDataType.equals(ReportSortEnum.month.name())) {
-        return servicePackageDailyReportRepository
-            .findAllByServicePackageIdAndStartDateAndEndDateGroupByMonth(
-                servicePackageId,
-                startRangeDate.toLocalDate(),
-                endRangeDate.toLocalDate(),
-                TenantContext.getTenant());
-      } else if (groupDataType.equals(ReportSortEnum.year.name())) {
-        return servicePackageDailyReportRepository
-            .findAllByServicePackageIdAndStartDateAndEndDateGroupByYear(
-                servicePackageId,
-                startRangeDate.toLocalDate(),
-                endRangeDate.toLocalDate(),
-                TenantContext.getTenant());
-      }
-    }
-    return null;
+  public ReportSeriesDto findAllSeries(
+      LocalDateTime startRangeDate, LocalDateTime endRangeDate, String groupDataType) {
+    return reportCacheService.findSeries(
+        ReportSource.servicePackage,
+        groupDataType,
+        Objects.nonNull(startRangeDate) ? startRangeDate.toLocalDate() : null,
+        Objects.nonNull(endRangeDate) ? endRangeDate.toLocalDate() : null,
+        TenantContext.getTenant());
   }
 
-  public boolean existsByDateAndTenantId(LocalDate date, String tenantId) {
-    return servicePackageDailyReportRepository.existsByDate(date);
+  @Transactional
+  public int generateStagingForRange(
+      LocalDate startDate, LocalDate endDate, String tenantId) {
+    return servicePackageDailyReportRepository.insertStagingForRange(
+        startDate.atStartOfDay(), endDate.atStartOfDay(), tenantId, false);
+  }
+
+  @Transactional
+  public int publishStaging(String tenantId) {
+    servicePackageDailyReportRepository.deleteAllByTenantId(tenantId);
+    int numberOfRows = servicePackageDailyReportRepository.publishStaging(tenantId);
+    servicePackageDailyReportRepository.deleteStagingByTenantId(tenantId);
+    rebuildRollups(tenantId);
+
+    return numberOfRows;
+  }
+
+  @Transactional
+  public void rebuildRollups(String tenantId) {
+    servicePackageDailyReportRepository.deleteRollupsByTenantId(tenantId);
+    servicePackageDailyReportRepository.insertRollups(ReportSortEnum.month.name(), null, null, tenantId);
+    servicePackageDailyReportRepository.insertRollups(ReportSortEnum.year.name(), null, null, tenantId);
+  }
+
+  // dnevni izvjestaji generisani prije uvodjenja zbirova nemaju mjesecne i godisnje redove
+  public boolean isMissingRollups(String tenantId) {
+    return servicePackageDailyReportRepository.isMissingRollups(tenantId);
+  }
+
+  // mjesecni i godisnji zbirovi se ponovo racunaju samo za periode u kojima su izmijenjeni datumi
+  @Transactional
+  public void refreshRollups(Collection<LocalDate> dates, String tenantId) {
+    for (ReportSortEnum period : List.of(ReportSortEnum.month, ReportSortEnum.year)) {
+      dates.stream()
+          .map(date -> DateTimeUtil.getPeriodStart(date, period))
+          .distinct()
+          .forEach(
+              periodStart -> {
+                servicePackageDailyReportRepository.deleteRollupsForPeriod(period.name(), periodStart, tenantId);
+                servicePackageDailyReportRepository.insertRollups(
+                    period.name(),
+                    periodStart,
+                    DateTimeUtil.getNextPeriodStart(periodStart, period),
+                    tenantId);
+              });
+    }
   }
 
   @Transactional
-  public void deleteAllByTenantId(String tenantId) {
-    servicePackageDailyReportRepository.deleteAll();
+  public void deleteStagingByTenantId(String tenantId) {
+    servicePackageDailyReportRepository.deleteStagingByTenantId(tenantId);
   }
 
   @Transactional
   public void deleteByDateAndTenantId(LocalDate date, String tenantId) {
-    servicePackageDailyReportRepository.deleteByDate(date);
+    servicePackageDailyReportRepository.deleteByDateAndTenantId(date, tenantId);
   }
 }
@@ -34,6 +34,8 @@ public class ServicePackageService {
 
   @Autowired private SecurityUtil securityUtil;
 
+  @Autowired private ReportCacheService reportCacheService;
+
   public ServicePackage findById(Integer servicePackageId) {
     return servicePackageRepository
         .findById(servicePackageId)
@@ -77,6 +79,12 @@ public class ServicePackageService {
     ServicePackage servicePackage = findById(updateServicePackageDto.getServicePackageId());
 
     if (!arrangementRepository.existsByServicePackageAndIsDeleted(servicePackage, false)) {
+      if (!servicePackage
+          .getServicePackageName()
+          .equals(updateServicePackageDto.getServicePackageName())) {
+        // naziv paketa je naziv serije u izvjestaju
+        reportCacheService.invalidateTenant(TenantContext.getTenant());
+      }
       servicePackage.setServicePackageName(updateServicePackageDto.getServicePackageName());
       servicePackage.setServicePackageDurationDays(
           updateServicePackageDto.getServicePackageDurationDays());
@@ -135,13 +143,4 @@ public class ServicePackageService {
 
     return servicePackageRepository.findAll(spec, pageable);
   }
-
-  // ovaj se servis koristi samo za izvjestaje jer se izvjestaji generisu preko
-  // schedulera
-  public List<ServicePackage> findAllByTenantForReport(String tenantId) {
-
-    Specification<ServicePackage> spec =
-        Specification.where(ServicePackageSpecifications.tenantAndNotDeleted(tenantId));
-    return servicePackageRepository.findAll(spec);
-  }
 }
@@ -21,6 +21,8 @@ public class StatusService {
 
   @Autowired private StatusTypeService statusTypeService;
 
+  @Autowired private ReportCacheService reportCacheService;
+
   public Status findById(int statusId) {
     return statusRepository
         .findById(statusId)
@@ -62,6 +64,10 @@ public class StatusService {
     }
     Status status = findById(updateStatusDto.getStatusId());
 
+    if (!status.getStatusCode().equals(updateStatusDto.getStatusCode())) {
+      // kod statusa je naziv serije u izvjestaju rezervacija
+      reportCacheService.invalidateAll();
+    }
     status.setStatusCode(updateStatusDto.getStatusCode());
     status.setStatusName(updateStatusDto.getStatusName());
     status.setStatusType(statusType);
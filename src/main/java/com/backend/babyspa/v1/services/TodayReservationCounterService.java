@@ -0,0 +1,230 @@
+package com.backend.babyspa.v1.services;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.babyspa.v1.config.TenantContext;
+import com.backend.babyspa.v1.dtos.TodayReportDto;
+import com.backend.babyspa.v1.models.ReservationChangedEvent;
+import com.backend.babyspa.v1.models.ReservationChangedEvent.ReservationState;
+import com.backend.babyspa.v1.projections.CountByIdProjection;
+import com.backend.babyspa.v1.repositories.ReservationRepository;
+
+// brojaci danasnjih rezervacija po tenantu, statusu i paketu usluga. Ucitavaju se iz baze kod
+// prvog citanja u danu, nakon toga ih azuriraju dogadjaji izmjena rezervacija poslije commit-a, a
+// nocni scheduler ih ponovo uskladjuje sa bazom.
+//
+// Izmjena je "u toku" od trenutka prije commit-a do primjene na brojace i tada povecava redni broj
+// izmjena tenanta. Ucitavanje iz baze se prihvata samo ako tokom njega nije bilo izmjena u toku i
+// redni broj se nije promijenio, jer se inace ne zna da li ga upit vec sadrzi; takvo ucitavanje
+// se ponavlja, pa se izmjena ne broji dva puta niti se gubi kod zamjene brojaca. Sve je bez
+// lock-a: izmjene se dodaju u LongAdder-e, a ucitani brojaci se postavljaju zamjenom reference.
+@Service
+public class TodayReservationCounterService {
+
+  private static final String reservationStatusType = "reservation";
+
+  // isti dan kao i nocni scheduler, nezavisno od zone servera
+  private static final ZoneId zone = ZoneId.of("Europe/Sarajevo");
+
+  private static final int maxLoadAttempts = 3;
+
+  private final Map<String, TenantCounters> countersByTenant = new ConcurrentHashMap<>();
+
+  @Autowired private ReservationRepository reservationRepository;
+
+  public TodayReportDto findToday() {
+    TodayCounters counters = getCounters(TenantContext.getTenant());
+
+    return new TodayReportDto(
+        counters.date,
+        counters.byStatus.values().stream().mapToLong(LongAdder::sum).sum(),
+        toMap(counters.byStatus),
+        toMap(counters.byServicePackage));
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onReservationChanged(ReservationChangedEvent event) {
+    TenantCounters tenantCounters = getTenantCounters(event.getTenantId());
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      tenantCounters.apply(event);
+      return;
+    }
+
+    tenantCounters.pendingChanges.incrementAndGet();
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+              tenantCounters.apply(event);
+            }
+            tenantCounters.pendingChanges.decrementAndGet();
+          }
+        });
+  }
+
+  // ako se ucitavanje stalno preklapa sa izmjenama, brojaci se odbacuju i ucitavaju kod
+  // sljedeceg citanja
+  public void reconcile(String tenantId) {
+    TenantCounters tenantCounters = getTenantCounters(tenantId);
+    if (Objects.isNull(loadConsistent(tenantCounters, tenantId, LocalDate.now(zone)))) {
+      tenantCounters.clear();
+    }
+  }
+
+  private TodayCounters getCounters(String tenantId) {
+    LocalDate currentDate = LocalDate.now(zone);
+    TenantCounters tenantCounters = getTenantCounters(tenantId);
+    TodayCounters counters = tenantCounters.counters.get();
+    if (Objects.nonNull(counters) && counters.date.equals(currentDate)) {
+      return counters;
+    }
+
+    // stanje iz baze se vraca i kad nije zapamceno, a brojaci se ucitavaju kod sljedeceg citanja
+    return Objects.requireNonNullElseGet(
+        loadConsistent(tenantCounters, tenantId, currentDate), () -> load(tenantId, currentDate));
+  }
+
+  private TenantCounters getTenantCounters(String tenantId) {
+    return countersByTenant.computeIfAbsent(tenantId, key -> new TenantCounters());
+  }
+
+  private TodayCounters loadConsistent(
+      TenantCounters tenantCounters, String tenantId, LocalDate date) {
+    for (int attempt = 0; attempt < maxLoadAttempts; attempt++) {
+      long sequence = tenantCounters.sequence.get();
+      if (tenantCounters.pendingChanges.get() > 0) {
+        continue;
+      }
+
+      TodayCounters counters = load(tenantId, date);
+      if (tenantCounters.replaceIfUnchanged(counters, sequence)) {
+        return counters;
+      }
+    }
+    return null;
+  }
+
+  private TodayCounters load(String tenantId, LocalDate date) {
+    TodayCounters counters = new TodayCounters(date);
+    add(
+        counters.byStatus,
+        reservationRepository.countByStatusForDay(
+            date.atStartOfDay(),
+            date.plusDays(1).atStartOfDay(),
+            reservationStatusType,
+            tenantId,
+            false));
+    add(
+        counters.byServicePackage,
+        reservationRepository.countByServicePackageForDay(
+            date.atStartOfDay(), date.plusDays(1).atStartOfDay(), tenantId, false));
+    return counters;
+  }
+
+  private void add(Map<Integer, LongAdder> counters, List<CountByIdProjection> counts) {
+    counts.forEach(
+        count ->
+            counters.computeIfAbsent(count.getId(), id -> new LongAdder()).add(count.getCount()));
+  }
+
+  private Map<Integer, Long> toMap(Map<Integer, LongAdder> counters) {
+    Map<Integer, Long> values = new TreeMap<>();
+    counters.forEach(
+        (id, counter) -> {
+          long value = counter.sum();
+          if (value != 0) {
+            values.put(id, value);
+          }
+        });
+    return values;
+  }
+
+  private static class TenantCounters {
+
+    private final AtomicInteger pendingChanges = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicReference<TodayCounters> counters = new AtomicReference<>();
+
+    // provjera se ponavlja nakon zamjene: izmjena koja je pocela izmedju provjere i zamjene je
+    // mozda dodana u prethodne brojace, pa se ucitani brojaci tada odbacuju
+    private boolean replaceIfUnchanged(TodayCounters loaded, long loadSequence) {
+      if (!isUnchanged(loadSequence)) {
+        return false;
+      }
+      counters.set(loaded);
+      if (!isUnchanged(loadSequence)) {
+        counters.compareAndSet(loaded, null);
+        return false;
+      }
+      return true;
+    }
+
+    private boolean isUnchanged(long loadSequence) {
+      return pendingChanges.get() == 0 && sequence.get() == loadSequence;
+    }
+
+    private void clear() {
+      counters.set(null);
+    }
+
+    // ako su brojaci zamijenjeni dok se izmjena dodavala, novi brojaci su ucitani prije njenog
+    // commit-a, pa se izmjena dodaje i u njih. Redni broj se povecava tek nakon toga.
+    private void apply(ReservationChangedEvent event) {
+      TodayCounters applied = null;
+      TodayCounters current;
+      while ((current = counters.get()) != applied) {
+        apply(current, event.getPrevious(), -1);
+        apply(current, event.getCurrent(), 1);
+        applied = current;
+      }
+      sequence.incrementAndGet();
+    }
+
+    // brojaci koji jos nisu ucitani za dan izmjene se ne diraju, jer ce ucitavanje iz baze vec
+    // sadrzavati ovu izmjenu
+    private void apply(TodayCounters todayCounters, ReservationState state, int delta) {
+      if (Objects.isNull(todayCounters)
+          || Objects.isNull(state)
+          || !todayCounters.date.equals(state.getDate())) {
+        return;
+      }
+      todayCounters
+          .byStatus
+          .computeIfAbsent(state.getStatusId(), id -> new LongAdder())
+          .add(delta);
+      todayCounters
+          .byServicePackage
+          .computeIfAbsent(state.getServicePackageId(), id -> new LongAdder())
+          .add(delta);
+    }
+  }
+
+  private static class TodayCounters {
+
+    private final LocalDate date;
+    private final Map<Integer, LongAdder> byStatus = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> byServicePackage = new ConcurrentHashMap<>();
+
+    private TodayCounters(LocalDate date) {
+      this.date = date;
+    }
+  }
+}
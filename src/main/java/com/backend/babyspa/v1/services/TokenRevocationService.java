@@ -0,0 +1,75 @@
+package com.backend.babyspa.v1.services;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.babyspa.v1.models.User;
+import com.backend.babyspa.v1.repositories.UserRepository;
+
+import io.jsonwebtoken.Claims;
+
+// token nosi verziju korisnika iz trenutka prijave; promjena uloga, password-a ili username-a
+// povecava verziju, pa se svi ranije izdati tokeni tog korisnika odbijaju. U memoriji se drze
+// samo korisnici sa verzijom vecom od 0, a refresh preuzima izmjene sa drugih instanci.
+@Service
+public class TokenRevocationService {
+
+  @Autowired private UserRepository userRepository;
+
+  private final Map<Integer, Integer> tokenVersions = new ConcurrentHashMap<>();
+
+  private volatile boolean loaded;
+
+  @Transactional
+  public void revoke(User user) {
+    userRepository.incrementTokenVersion(user.getUserId());
+    int tokenVersion = userRepository.findTokenVersion(user.getUserId());
+    user.setTokenVersion(tokenVersion);
+
+    afterCommit(() -> tokenVersions.merge(user.getUserId(), tokenVersion, Math::max));
+  }
+
+  // token bez verzije je izdat prije uvodjenja verzija i vrijedi kao verzija 0
+  public boolean isRevoked(Claims claims) {
+    if (!loaded) {
+      refresh();
+    }
+
+    Integer userId = claims.get("userId", Integer.class);
+    Integer tokenVersion = claims.get("tokenVersion", Integer.class);
+    return Objects.isNull(userId)
+        || Objects.requireNonNullElse(tokenVersion, 0) < tokenVersions.getOrDefault(userId, 0);
+  }
+
+  // verzije samo rastu, pa se postojece vrijednosti ne brisu nego samo povecavaju
+  public synchronized void refresh() {
+    userRepository
+        .findRevokedTokenVersions()
+        .forEach(
+            projection ->
+                tokenVersions.merge(
+                    projection.getId(), projection.getTokenVersion(), Math::max));
+    loaded = true;
+  }
+
+  private void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+}
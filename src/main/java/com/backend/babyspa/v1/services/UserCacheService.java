@@ -0,0 +1,67 @@
+package com.backend.babyspa.v1.services;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.babyspa.v1.models.AuthUserDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// korisnik i uloge po username-u, da se ne citaju iz baze na svakom zahtjevu. Izmjene korisnika i
+// uloga izbacuju zapis nakon commit-a, a TTL ogranicava zastarjele podatke sa drugih instanci.
+// Hit/miss se vide kao metrika cache.gets{cache="userDetails"}.
+@Service
+public class UserCacheService {
+
+  private final Cache<String, AuthUserDetails> userDetails;
+
+  public UserCacheService(
+      @Value("${app.user-cache.maximum-size}") long maximumSize,
+      @Value("${app.user-cache.expire-after-write}") Duration expireAfterWrite,
+      MeterRegistry meterRegistry) {
+    this.userDetails =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, userDetails, "userDetails");
+  }
+
+  // izuzetak iz loader-a (nepostojeci korisnik) se ne pamti
+  public AuthUserDetails getUserDetails(
+      String username, Function<String, AuthUserDetails> loader) {
+    return userDetails.get(username, loader);
+  }
+
+  public void evict(String... usernames) {
+    afterCommit(
+        () ->
+            userDetails.invalidateAll(
+                Arrays.stream(usernames).filter(Objects::nonNull).toList()));
+  }
+
+  private void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+}
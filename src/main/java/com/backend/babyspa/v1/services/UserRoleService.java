@@ -26,6 +26,10 @@ public class UserRoleService {
 
   @Autowired private UserRepository userRepository;
 
+  @Autowired private TokenRevocationService tokenRevocationService;
+
+  @Autowired private UserCacheService userCacheService;
+
   @Transactional
   public String assignRolesToUser(AssignRolesDto assignRolesDto, Authentication authentication) {
     boolean hasPermission =
@@ -59,6 +63,8 @@ public class UserRoleService {
               userRole.setUserRoleKey(new UserRoleKey(user.getUserId(), role.getRoleId()));
               userRoleRepository.save(userRole);
             });
+    tokenRevocationService.revoke(user);
+    userCacheService.evict(user.getUsername());
 
     return "Uspješno ste dodijelili uloge korisniku: " + user.getUsername() + "!";
   }
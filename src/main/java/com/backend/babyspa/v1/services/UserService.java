@@ -17,6 +17,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.backend.babyspa.v1.config.TenantContext;
+import com.backend.babyspa.v1.config.TenantTransactionRunner;
 import com.backend.babyspa.v1.config.UserDetailsServiceImpl;
 import com.backend.babyspa.v1.dtos.AddNewTenantUserDto;
 import com.backend.babyspa.v1.dtos.AssignRolesDto;
@@ -25,8 +26,10 @@ import com.backend.babyspa.v1.dtos.LoginDto;
 import com.backend.babyspa.v1.dtos.LoginResponseDto;
 import com.backend.babyspa.v1.dtos.RegisterNewUserDto;
 import com.backend.babyspa.v1.dtos.UpdateUserDto;
+import com.backend.babyspa.v1.dtos.UpdateUserResponseDto;
 import com.backend.babyspa.v1.dtos.UserInfoDto;
 import com.backend.babyspa.v1.exceptions.NotFoundException;
+import com.backend.babyspa.v1.models.AuthUserDetails;
 import com.backend.babyspa.v1.models.Role;
 import com.backend.babyspa.v1.models.User;
 import com.backend.babyspa.v1.repositories.UserRepository;
@@ -50,6 +53,12 @@ public class UserService {
 
   @Autowired private UserRoleService userRoleService;
 
+  @Autowired private TokenRevocationService tokenRevocationService;
+
+  @Autowired private UserCacheService userCacheService;
+
+  @Autowired private TenantTransactionRunner tenantTransactionRunner;
+
   private static final String initalRoleForNewTenantUser = "ROLE_ADMIN";
 
   public User findById(int userId) {
@@ -130,7 +139,7 @@ public class UserService {
     return userRepository.save(user);
   }
 
-  @Transactional
+  // korisnik se kreira u sesiji novog tenanta, a ne u sesiji super admina koji ga dodaje
   public User addNewTenantUser(
       AddNewTenantUserDto addNewTenantUserDto, Authentication authentication) {
     boolean hasPermission =
@@ -140,37 +149,45 @@ public class UserService {
       throw new BusinessException("Ovaj korisnik nema ovlaštenje da dodaje nove tenante.");
     }
 
-    if (userRepository.existsByUsername(addNewTenantUserDto.getUsername())) {
-      throw new BadCredentialsException("Username već postoji.");
+    String[] usernameParts = addNewTenantUserDto.getUsername().split("@");
+    if (usernameParts.length != 2 || usernameParts[1].isBlank()) {
+      throw new BusinessException("Username novog tenanta mora biti u formatu username@tenant!");
     }
 
-    if (userRepository.existsByEmail(addNewTenantUserDto.getEmail())) {
-      throw new BadCredentialsException("Email već postoji.");
-    }
+    return tenantTransactionRunner.callInTenant(
+        usernameParts[1],
+        () -> {
+          if (userRepository.existsByUsername(addNewTenantUserDto.getUsername())) {
+            throw new BadCredentialsException("Username već postoji.");
+          }
 
-    User user = new User();
+          if (userRepository.existsByEmail(addNewTenantUserDto.getEmail())) {
+            throw new BadCredentialsException("Email već postoji.");
+          }
 
-    user.setEmail(addNewTenantUserDto.getEmail());
-    user.setFirstName(addNewTenantUserDto.getFirstName());
-    user.setLastName(addNewTenantUserDto.getLastName());
-    user.setUsername(addNewTenantUserDto.getUsername());
-    String[] usernameParts = addNewTenantUserDto.getUsername().split("@");
-    user.setTenantId(usernameParts[1]);
-    user.setPassword(passwordEncoder.encode(addNewTenantUserDto.getPassword()));
+          User user = new User();
 
-    userRepository.save(user);
+          user.setEmail(addNewTenantUserDto.getEmail());
+          user.setFirstName(addNewTenantUserDto.getFirstName());
+          user.setLastName(addNewTenantUserDto.getLastName());
+          user.setUsername(addNewTenantUserDto.getUsername());
+          user.setTenantId(usernameParts[1]);
+          user.setPassword(passwordEncoder.encode(addNewTenantUserDto.getPassword()));
+
+          userRepository.save(user);
 
-    Role role = roleService.findByRoleName(initalRoleForNewTenantUser);
-    AssignRolesDto assignRolesDto = new AssignRolesDto();
-    List<Integer> roleIds = new ArrayList<>();
+          Role role = roleService.findByRoleName(initalRoleForNewTenantUser);
+          AssignRolesDto assignRolesDto = new AssignRolesDto();
+          List<Integer> roleIds = new ArrayList<>();
 
-    roleIds.add(role.getRoleId());
-    assignRolesDto.setRoleIds(roleIds);
-    assignRolesDto.setUserId(user.getUserId());
+          roleIds.add(role.getRoleId());
+          assignRolesDto.setRoleIds(roleIds);
+          assignRolesDto.setUserId(user.getUserId());
 
-    userRoleService.assignRolesToUser(assignRolesDto, authentication);
+          userRoleService.assignRolesToUser(assignRolesDto, authentication);
 
-    return user;
+          return user;
+        });
   }
 
   public LoginResponseDto loginUser(LoginDto loginDto) {
@@ -188,7 +205,9 @@ public class UserService {
     return new LoginResponseDto(jwt);
   }
 
-  public String changePassword(ChangePasswordDto changePasswordDto, Authentication authentication) {
+  @Transactional
+  public LoginResponseDto changePassword(
+      ChangePasswordDto changePasswordDto, Authentication authentication) {
     User user =
         userRepository
             .findByUsername(authentication.getName())
@@ -200,16 +219,24 @@ public class UserService {
 
     user.setPassword(passwordEncoder.encode(changePasswordDto.getNewPassword()));
     userRepository.save(user);
+    tokenRevocationService.revoke(user);
+    userCacheService.evict(user.getUsername());
 
-    return "Uspješno ste promijenili password";
+    return new LoginResponseDto(generateTokenForUser(user));
   }
 
-  public User updateUser(UpdateUserDto updateUserDto, Authentication authentication) {
+  @Transactional
+  public UpdateUserResponseDto updateUser(
+      UpdateUserDto updateUserDto, Authentication authentication) {
     User user =
         userRepository
             .findByUsername(authentication.getName())
             .orElseThrow(() -> new UsernameNotFoundException("Korisnik nije pronađen."));
 
+    String username = updateUserDto.getUsername() + "@" + user.getTenantId();
+    boolean revokeTokens =
+        Objects.nonNull(updateUserDto.getNewPassword()) || !username.equals(user.getUsername());
+
     if (Objects.nonNull(updateUserDto.getNewPassword())) {
       if (!passwordEncoder.matches(updateUserDto.getOldPassword(), user.getPassword())) {
         throw new BadCredentialsException("Stari password nije tačan.");
@@ -229,9 +256,21 @@ public class UserService {
     user.setEmail(updateUserDto.getEmail());
     user.setFirstName(updateUserDto.getFirstName());
     user.setLastName(updateUserDto.getLastName());
-    user.setUsername(updateUserDto.getUsername() + "@" + user.getTenantId());
+    String previousUsername = user.getUsername();
+    user.setUsername(username);
 
-    return userRepository.save(user);
+    User savedUser = userRepository.save(user);
+    userCacheService.evict(previousUsername, username);
+    if (revokeTokens) {
+      tokenRevocationService.revoke(savedUser);
+    }
+    return new UpdateUserResponseDto(savedUser, generateTokenForUser(savedUser));
+  }
+
+  // revoke ponistava i token kojim je korisnik poslao zahtjev, pa mu se vraca novi token sa
+  // trenutnom verzijom, username-om i podacima iz ove transakcije
+  private String generateTokenForUser(User user) {
+    return jwtUtil.generateToken(new AuthUserDetails(user.getUsername(), List.of()));
   }
 
   private UserInfoDto buildUserInfoFromUser(User user) {
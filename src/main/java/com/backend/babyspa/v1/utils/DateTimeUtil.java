@@ -1,8 +1,17 @@
 package com.backend.babyspa.v1.utils;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import com.backend.babyspa.v1.models.ReportSortEnum;
 
 public class DateTimeUtil {
 
@@ -23,6 +32,89 @@ public class DateTimeUtil {
     return date.format(dateFormatter);
   }
 
+  public static LocalDate getPeriodStart(LocalDate date, ReportSortEnum period) {
+    return switch (period) {
+      case day -> date;
+      case week -> date.with(DayOfWeek.MONDAY);
+      case month -> date.withDayOfMonth(1);
+      case quarter -> date.withDayOfMonth(1).withMonth((date.getMonthValue() - 1) / 3 * 3 + 1);
+      case year -> date.withDayOfYear(1);
+    };
+  }
+
+  public static LocalDate getNextPeriodStart(LocalDate date, ReportSortEnum period) {
+    LocalDate periodStart = getPeriodStart(date, period);
+    return switch (period) {
+      case day -> periodStart.plusDays(1);
+      case week -> periodStart.plusWeeks(1);
+      case month -> periodStart.plusMonths(1);
+      case quarter -> periodStart.plusMonths(3);
+      case year -> periodStart.plusYears(1);
+    };
+  }
+
+  // prvi period koji u potpunosti pocinje unutar raspona
+  public static LocalDate getFirstFullPeriodStart(LocalDate startDate, ReportSortEnum period) {
+    return getPeriodStart(startDate, period).equals(startDate)
+        ? startDate
+        : getNextPeriodStart(startDate, period);
+  }
+
+  // kraj (iskljucivo) posljednjeg perioda koji se u potpunosti zavrsava unutar raspona
+  public static LocalDate getLastFullPeriodEnd(LocalDate endDate, ReportSortEnum period) {
+    return getPeriodStart(endDate.plusDays(1), period);
+  }
+
+  // svi pocetci perioda od perioda u kojem je startDate do perioda u kojem je endDate
+  public static List<LocalDate> getPeriodStarts(
+      LocalDate startDate, LocalDate endDate, ReportSortEnum period) {
+    List<LocalDate> periodStarts = new ArrayList<>();
+    for (LocalDate periodStart = getPeriodStart(startDate, period);
+        !periodStart.isAfter(endDate);
+        periodStart = getNextPeriodStart(periodStart, period)) {
+      periodStarts.add(periodStart);
+    }
+    return periodStarts;
+  }
+
+  // periodi izvjestaja: zadana granica raspona se postuje, a otvorena granica se zamjenjuje
+  // prvim, odnosno posljednjim periodom sa podacima
+  public static List<LocalDate> getReportPeriodStarts(
+      LocalDate startDate,
+      LocalDate endDate,
+      LocalDate firstDataDate,
+      LocalDate lastDataDate,
+      ReportSortEnum period) {
+    LocalDate from = Objects.nonNull(startDate) ? startDate : firstDataDate;
+    LocalDate to = Objects.nonNull(endDate) ? endDate : lastDataDate;
+    if (Objects.isNull(from) || Objects.isNull(to)) {
+      return new ArrayList<>();
+    }
+    return getPeriodStarts(from, to, period);
+  }
+
+  // isti format koji je izvjestaj ranije dobijao iz baze preko TO_CHAR
+  public static String formatPeriod(LocalDate periodStart, ReportSortEnum period) {
+    return switch (period) {
+      case day -> periodStart.format(dateFormatter);
+      case week ->
+          String.format(
+              "%02d. sedmica %04d",
+              periodStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR),
+              periodStart.get(IsoFields.WEEK_BASED_YEAR));
+      case month ->
+          String.format(
+              "%-9s %04d",
+              periodStart.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH),
+              periodStart.getYear());
+      case quarter ->
+          String.format(
+              "%d. kvartal %04d",
+              periodStart.get(IsoFields.QUARTER_OF_YEAR), periodStart.getYear());
+      case year -> String.format("%04d", periodStart.getYear());
+    };
+  }
+
   public static String formatLocalDateTime(LocalDateTime dateTime) {
     if (dateTime == null) {
       return null;
@@ -1,11 +1,16 @@
 package com.backend.babyspa.v1.utils;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -17,11 +22,17 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import com.backend.babyspa.v1.exceptions.NotFoundException;
+import com.backend.babyspa.v1.models.AuthUserDetails;
 import com.backend.babyspa.v1.models.User;
 import com.backend.babyspa.v1.repositories.UserRepository;
 import com.backend.babyspa.v1.repositories.UserRoleRepository;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
@@ -30,12 +41,61 @@ public class JwtUtil {
 
   private final SecretKey SECRET_KEY;
 
+  private final JwtParser jwtParser;
+
+  // verifikovani claims po SHA-256 hash-u tokena; zapis istice zajedno sa tokenom
+  private final Cache<String, Claims> verifiedClaims;
+
   @Autowired private UserRepository userRepository;
 
   @Autowired private UserRoleRepository userRoleRepository;
 
-  public JwtUtil(@Value("${jwt.secret}") String secretString) {
+  public JwtUtil(
+      @Value("${jwt.secret}") String secretString,
+      @Value("${jwt.claims-cache-size}") long claimsCacheSize) {
     this.SECRET_KEY = Keys.hmacShaKeyFor(secretString.getBytes(StandardCharsets.UTF_8));
+    this.jwtParser = Jwts.parserBuilder().setSigningKey(SECRET_KEY).build();
+    this.verifiedClaims =
+        Caffeine.newBuilder()
+            .maximumSize(claimsCacheSize)
+            .expireAfter(
+                new Expiry<String, Claims>() {
+                  @Override
+                  public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                    return TimeUnit.MILLISECONDS.toNanos(
+                        Math.max(
+                            claims.getExpiration().getTime() - System.currentTimeMillis(), 0));
+                  }
+
+                  @Override
+                  public long expireAfterUpdate(
+                      String key, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                  }
+
+                  @Override
+                  public long expireAfterRead(
+                      String key, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                  }
+                })
+            .build();
+  }
+
+  // potpis se provjerava samo kod prvog koristenja tokena; ponovljeni zahtjevi sa istim tokenom
+  // dobijaju claims iz cache-a dok token ne istekne
+  public Claims parseToken(String token) {
+    String tokenHash = hash(token);
+    Claims claims = verifiedClaims.getIfPresent(tokenHash);
+
+    if (Objects.isNull(claims)) {
+      claims = jwtParser.parseClaimsJws(token).getBody();
+      if (Objects.nonNull(claims.getExpiration())) {
+        verifiedClaims.put(tokenHash, claims);
+      }
+    }
+
+    return claims;
   }
 
   public String extractUsername(String token) {
@@ -52,11 +112,22 @@ public class JwtUtil {
   }
 
   private Claims extractAllClaims(String token) {
-    return Jwts.parserBuilder().setSigningKey(SECRET_KEY).build().parseClaimsJws(token).getBody();
+    return parseToken(token);
   }
 
-  private Boolean isTokenExpired(String token) {
-    return extractExpiration(token).before(new Date());
+  private Boolean isTokenExpired(Claims claims) {
+    return claims.getExpiration().before(new Date());
+  }
+
+  private String hash(String token) {
+    try {
+      return HexFormat.of()
+          .formatHex(
+              MessageDigest.getInstance("SHA-256")
+                  .digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
   }
 
   public String generateToken(UserDetails userDetails) {
@@ -78,6 +149,7 @@ public class JwtUtil {
     claims.put("lastName", user.getLastName());
     claims.put("role", userRoles);
     claims.put("tenant_id", user.getTenantId());
+    claims.put("tokenVersion", user.getTokenVersion());
     return createToken(claims, userDetails.getUsername());
   }
 
@@ -91,9 +163,22 @@ public class JwtUtil {
         .compact();
   }
 
+  // korisnik sastavljen samo iz potpisanih claims-a, bez citanja korisnika i uloga iz baze
+  public UserDetails extractUserDetails(Claims claims) {
+    List<?> roles = claims.get("role", List.class);
+    return new AuthUserDetails(
+        claims.getSubject(),
+        Objects.nonNull(roles)
+            ? roles.stream().map(role -> "ROLE_" + role).collect(Collectors.toList())
+            : List.of());
+  }
+
   public Boolean validateToken(String token, UserDetails userDetails) {
-    final String username = extractUsername(token);
-    return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    return validateToken(parseToken(token), userDetails);
+  }
+
+  public Boolean validateToken(Claims claims, UserDetails userDetails) {
+    return (claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims));
   }
 
   private Date setTokenExpirationDate(int hours) {
@@ -104,11 +189,10 @@ public class JwtUtil {
   }
 
   public String extractTenantId(String token) {
-    return Jwts.parserBuilder()
-        .setSigningKey(SECRET_KEY)
-        .build()
-        .parseClaimsJws(token)
-        .getBody()
-        .get("tenant_id", String.class);
+    return extractTenantId(parseToken(token));
+  }
+
+  public String extractTenantId(Claims claims) {
+    return claims.get("tenant_id", String.class);
   }
 }
@@ -1,8 +1,12 @@
 package com.backend.babyspa.v1.utils;
 
+import java.util.Objects;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import com.backend.babyspa.v1.models.AuthUserDetails;
 import com.backend.babyspa.v1.models.User;
@@ -12,6 +16,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class SecurityUtil {
 
+  private static final String CURRENT_USER_ATTRIBUTE = SecurityUtil.class.getName() + ".user.";
+
   @Autowired private UserService userService;
 
   public User getCurrentUser() {
@@ -25,9 +31,26 @@ public class SecurityUtil {
 
     if (principal instanceof AuthUserDetails) {
       String username = ((AuthUserDetails) principal).getUsername();
-      return userService.findByUsername(username);
+      return findForRequest(username);
     }
 
     return null;
   }
+
+  // korisnik se cita iz baze jednom po HTTP zahtjevu; van zahtjeva (scheduler) svaki poziv cita
+  private User findForRequest(String username) {
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (Objects.isNull(requestAttributes)) {
+      return userService.findByUsername(username);
+    }
+
+    String attributeName = CURRENT_USER_ATTRIBUTE + username;
+    User user =
+        (User) requestAttributes.getAttribute(attributeName, RequestAttributes.SCOPE_REQUEST);
+    if (Objects.isNull(user)) {
+      user = userService.findByUsername(username);
+      requestAttributes.setAttribute(attributeName, user, RequestAttributes.SCOPE_REQUEST);
+    }
+    return user;
+  }
 }
@@ -0,0 +1,124 @@
+package com.backend.babyspa.v1.service.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.backend.babyspa.v1.config.TenantContext;
+import com.backend.babyspa.v1.dtos.ArrangementSnapshotDto;
+import com.backend.babyspa.v1.models.Arrangement;
+import com.backend.babyspa.v1.models.ArrangementAudOutbox;
+import com.backend.babyspa.v1.models.Baby;
+import com.backend.babyspa.v1.models.ServicePackage;
+import com.backend.babyspa.v1.models.Status;
+import com.backend.babyspa.v1.models.StatusType;
+import com.backend.babyspa.v1.models.UserActionType;
+import com.backend.babyspa.v1.repositories.ArrangementAudOutboxRepository;
+import com.backend.babyspa.v1.services.ArrangementAudService;
+import com.backend.babyspa.v1.services.ArrangementSnapshotService;
+
+// zapis koji je ostao u outbox tabeli (restart, greska writer-a) mora dobiti manju verziju
+// snapshot-a od novije izmjene istog aranzmana koja se upisuje preko flush-a. Aranzman ne mora
+// postojati, jer audit tabele nemaju strani kljuc na aranzman.
+@SpringBootTest
+@DisplayName("ArrangementAudService Testovi Redoslijeda Verzija")
+public class ArrangementAudOrderTest {
+
+  private static final String testTenant = "aud-order-test";
+
+  @Autowired private ArrangementAudService arrangementAudService;
+
+  @Autowired private ArrangementSnapshotService arrangementSnapshotService;
+
+  @Autowired private ArrangementAudOutboxRepository arrangementAudOutboxRepository;
+
+  @Autowired private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+  private int arrangementId;
+
+  @BeforeEach
+  public void setUp() {
+    TenantContext.setTenant(testTenant);
+    arrangementId = -ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    MapSqlParameterSource parameters = new MapSqlParameterSource("arrangementId", arrangementId);
+    namedParameterJdbcTemplate.update(
+        "DELETE FROM arrangement_aud_outbox WHERE arrangement_id = :arrangementId", parameters);
+    namedParameterJdbcTemplate.update(
+        "DELETE FROM arrangement_aud WHERE arrangement_id = :arrangementId", parameters);
+    namedParameterJdbcTemplate.update(
+        "DELETE FROM arrangement_snapshot WHERE arrangement_id = :arrangementId", parameters);
+    TenantContext.clear();
+  }
+
+  @Test
+  @DisplayName("Stari zapis iz outbox-a se upisuje prije novije izmjene istog aranzmana")
+  public void testOldOutboxRecordIsWrittenBeforeNewerFlushedRecord() {
+    arrangementAudOutboxRepository.save(buildOutbox("stara izmjena", 9));
+    arrangementAudService.save(buildArrangement("nova izmjena", 8), null, UserActionType.update);
+
+    arrangementAudService.flush();
+    // ceka i writer scheduler-a, ako je on preuzeo flush
+    arrangementAudService.recoverOutbox();
+
+    ArrangementSnapshotDto latest = arrangementSnapshotService.findVersion(arrangementId, null);
+    assertEquals(2, latest.getVersion());
+    assertEquals("nova izmjena", latest.getData().get("note"));
+    assertEquals(8, latest.getData().get("remainingTerm"));
+
+    ArrangementSnapshotDto first = arrangementSnapshotService.findVersion(arrangementId, 1);
+    assertEquals("stara izmjena", first.getData().get("note"));
+    assertEquals(9, first.getData().get("remainingTerm"));
+  }
+
+  private ArrangementAudOutbox buildOutbox(String note, int remainingTerm) {
+    ArrangementAudOutbox arrangementAudOutbox = new ArrangementAudOutbox();
+    arrangementAudOutbox.setTenantId(testTenant);
+    arrangementAudOutbox.setArrangementId(arrangementId);
+    arrangementAudOutbox.setUserActionType(UserActionType.update);
+    arrangementAudOutbox.setActionAt(LocalDateTime.now().minusMinutes(5));
+    arrangementAudOutbox.setPrice(new BigDecimal("100.00"));
+    arrangementAudOutbox.setRemainingTerm(remainingTerm);
+    arrangementAudOutbox.setNote(note);
+    arrangementAudOutbox.setBabyInfo("beba");
+    arrangementAudOutbox.setServicePackageInfo("paket");
+    arrangementAudOutbox.setStatusInfo("status");
+    arrangementAudOutbox.setDiscountInfo("");
+    arrangementAudOutbox.setPaymentTypeInfo("");
+    arrangementAudOutbox.setGiftCardInfo("");
+    return arrangementAudOutbox;
+  }
+
+  private Arrangement buildArrangement(String note, int remainingTerm) {
+    StatusType statusType = new StatusType();
+    statusType.setStatusTypeCode("arrangement");
+    Status status = new Status();
+    status.setStatusCode("created");
+    status.setStatusType(statusType);
+
+    Arrangement arrangement = new Arrangement();
+    arrangement.setArrangementId(arrangementId);
+    arrangement.setTenantId(testTenant);
+    arrangement.setPrice(new BigDecimal("100.00"));
+    arrangement.setRemainingTerm(remainingTerm);
+    arrangement.setNote(note);
+    arrangement.setBaby(new Baby());
+    arrangement.setServicePackage(new ServicePackage());
+    arrangement.setStatus(status);
+    return arrangement;
+  }
+}
@@ -0,0 +1,227 @@
+package com.backend.babyspa.v1.service.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.babyspa.v1.config.TenantContext;
+import com.backend.babyspa.v1.exceptions.BusinessException;
+import com.backend.babyspa.v1.models.Arrangement;
+import com.backend.babyspa.v1.models.Baby;
+import com.backend.babyspa.v1.models.ServicePackage;
+import com.backend.babyspa.v1.models.User;
+import com.backend.babyspa.v1.repositories.ArrangementRepository;
+import com.backend.babyspa.v1.repositories.BabyRepository;
+import com.backend.babyspa.v1.repositories.ServicePackageRepository;
+import com.backend.babyspa.v1.repositories.UserRepository;
+import com.backend.babyspa.v1.services.ArrangementService;
+import com.backend.babyspa.v1.services.StatusService;
+
+// podaci se commit-aju jer svaki thread radi u svojoj transakciji, pa se brisu nakon testa
+@SpringBootTest
+@DisplayName("ArrangementService Testovi Istovremenih Izmjena Termina")
+public class ArrangementRemainingTermConcurrencyTest {
+
+  private static final String testTenant = "concurrency-test";
+  private static final int numberOfThreads = 16;
+
+  @Autowired private ArrangementService arrangementService;
+
+  @Autowired private StatusService statusService;
+
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private BabyRepository babyRepository;
+
+  @Autowired private ServicePackageRepository servicePackageRepository;
+
+  @Autowired private ArrangementRepository arrangementRepository;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate transactionTemplate;
+  private User user;
+  private ServicePackage servicePackage;
+  private Baby baby;
+  private Arrangement arrangement;
+
+  @BeforeEach
+  public void setUp() {
+    TenantContext.setTenant(testTenant);
+    transactionTemplate = new TransactionTemplate(transactionManager);
+
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          user =
+              userRepository.save(
+                  new User(
+                      "termin" + System.nanoTime() + "@mail",
+                      "termin" + System.nanoTime() + "@" + testTenant,
+                      "password",
+                      "Test",
+                      "Korisnik",
+                      testTenant));
+
+          servicePackage = new ServicePackage();
+          servicePackage.setServicePackageName("Paket termina " + System.nanoTime());
+          servicePackage.setTermNumber(10);
+          servicePackage.setServicePackageDurationDays(30);
+          servicePackage.setPrice(new BigDecimal("100.00"));
+          servicePackage.setCreatedByUser(user);
+          servicePackageRepository.save(servicePackage);
+
+          baby = new Baby();
+          baby.setBabyName("Beba termina");
+          baby.setPhoneNumber("061000000");
+          baby.setCreatedByUser(user);
+          babyRepository.save(baby);
+
+          arrangement = new Arrangement();
+          arrangement.setBaby(baby);
+          arrangement.setServicePackage(servicePackage);
+          arrangement.setStatus(statusService.findByStatusCode("created"));
+          arrangement.setPrice(servicePackage.getPrice());
+          arrangement.setRemainingTerm(servicePackage.getTermNumber());
+          arrangement.setCreatedByUser(user);
+          arrangementRepository.save(arrangement);
+        });
+  }
+
+  @AfterEach
+  public void tearDown() {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          arrangementRepository.deleteById(arrangement.getArrangementId());
+          babyRepository.deleteById(baby.getBabyId());
+          servicePackageRepository.deleteById(servicePackage.getServicePackageId());
+          userRepository.deleteById(user.getUserId());
+        });
+    TenantContext.clear();
+  }
+
+  @Test
+  @DisplayName("decreaseRemainingTerm - Istovremene rezervacije ne troše više termina od broja")
+  public void testConcurrentDecreaseNeverGoesBelowZero() throws Exception {
+    int attempts = 80;
+    AtomicInteger succeeded = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+
+    runConcurrently(
+        attempts,
+        i -> {
+          try {
+            inTransaction(
+                () ->
+                    arrangementService.decreaseRemainingTerm(
+                        arrangementService.findById(arrangement.getArrangementId())));
+            succeeded.incrementAndGet();
+          } catch (BusinessException e) {
+            rejected.incrementAndGet();
+          }
+        });
+
+    assertEquals(10, succeeded.get());
+    assertEquals(attempts - 10, rejected.get());
+    assertEquals(0, reloadArrangement().getRemainingTerm());
+  }
+
+  @Test
+  @DisplayName("increase/decreaseRemainingTerm - Istovremena otkazivanja se ne gube")
+  public void testConcurrentIncreaseAndDecreaseKeepCount() throws Exception {
+    int attempts = 200;
+
+    // parni pozivi vracaju termin, neparni ga trose; pocetnih 10 termina je dovoljno da nijedno
+    // oduzimanje ne bude odbijeno
+    runConcurrently(
+        attempts,
+        i ->
+            inTransaction(
+                () -> {
+                  Arrangement loaded = arrangementService.findById(arrangement.getArrangementId());
+                  if (i % 2 == 0) {
+                    arrangementService.increaseRemainingTerm(loaded);
+                  } else {
+                    arrangementService.decreaseRemainingTerm(loaded);
+                  }
+                }));
+
+    Arrangement result = reloadArrangement();
+    assertEquals(10, result.getRemainingTerm());
+    assertEquals(arrangement.getVersion() + attempts, result.getVersion());
+  }
+
+  @Test
+  @DisplayName("Arrangement @Version - Zastarjela izmjena se odbija")
+  public void testStaleUpdateIsRejected() {
+    Arrangement first = reloadArrangement();
+    Arrangement second = reloadArrangement();
+
+    first.setNote("prva izmjena");
+    inTransaction(() -> arrangementRepository.save(first));
+
+    second.setNote("druga izmjena");
+    assertThrows(
+        ObjectOptimisticLockingFailureException.class,
+        () -> inTransaction(() -> arrangementRepository.save(second)));
+    assertEquals("prva izmjena", reloadArrangement().getNote());
+  }
+
+  private void runConcurrently(int attempts, IntConsumer action) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < attempts; i++) {
+        int attempt = i;
+        futures.add(
+            executor.submit(
+                () -> {
+                  TenantContext.setTenant(testTenant);
+                  try {
+                    start.await();
+                    action.accept(attempt);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  } finally {
+                    TenantContext.clear();
+                  }
+                }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void inTransaction(Runnable action) {
+    transactionTemplate.executeWithoutResult(status -> action.run());
+  }
+
+  private Arrangement reloadArrangement() {
+    return transactionTemplate.execute(
+        status -> arrangementRepository.findById(arrangement.getArrangementId()).orElseThrow());
+  }
+}
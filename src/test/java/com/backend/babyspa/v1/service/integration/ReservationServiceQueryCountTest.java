@@ -0,0 +1,226 @@
+package com.backend.babyspa.v1.service.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.test.context.transaction.BeforeTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.babyspa.v1.config.TenantContext;
+import com.backend.babyspa.v1.dtos.ReservationFindAllDto;
+import com.backend.babyspa.v1.dtos.ReservationFindAllTableDto;
+import com.backend.babyspa.v1.models.Arrangement;
+import com.backend.babyspa.v1.models.Baby;
+import com.backend.babyspa.v1.models.Reservation;
+import com.backend.babyspa.v1.models.ServicePackage;
+import com.backend.babyspa.v1.models.Status;
+import com.backend.babyspa.v1.models.User;
+import com.backend.babyspa.v1.repositories.ArrangementRepository;
+import com.backend.babyspa.v1.repositories.BabyRepository;
+import com.backend.babyspa.v1.repositories.ReservationRepository;
+import com.backend.babyspa.v1.repositories.ServicePackageRepository;
+import com.backend.babyspa.v1.repositories.UserRepository;
+import com.backend.babyspa.v1.services.ReservationService;
+import com.backend.babyspa.v1.services.StatusService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+@DisplayName("ReservationService Testovi Broja Upita")
+public class ReservationServiceQueryCountTest {
+
+  private static final String testTenant = "query-count-test";
+
+  // stranica i COUNT, uz rezervu za pomocne upite; N+1 upit po aranzmanu ili bebi bi dodao bar
+  // poolSize upita
+  private static final int maxStatementsPerPage = 4;
+
+  private static final int poolSize = 5;
+
+  @Autowired private ReservationService reservationService;
+
+  @Autowired private StatusService statusService;
+
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private BabyRepository babyRepository;
+
+  @Autowired private ServicePackageRepository servicePackageRepository;
+
+  @Autowired private ArrangementRepository arrangementRepository;
+
+  @Autowired private ReservationRepository reservationRepository;
+
+  @Autowired private EntityManager entityManager;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  private final List<Arrangement> arrangements = new ArrayList<>();
+
+  // tenant se veze za sesiju kod njenog otvaranja, pa mora biti postavljen prije transakcije testa
+  @BeforeTransaction
+  public void setTenant() {
+    TenantContext.setTenant(testTenant);
+  }
+
+  @BeforeEach
+  public void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @AfterTransaction
+  public void clearTenant() {
+    TenantContext.clear();
+  }
+
+  // ==================== FINDALL TESTOVI ====================
+
+  @Test
+  @DisplayName("findAll - Broj upita po stranici ne zavisi od veličine stranice")
+  public void testFindAllStatementCountIsConstant() {
+    // Arrange
+    seedReservations(40);
+
+    // Act
+    long smallPageStatements = countStatements(() -> findAllPage(5));
+    long largePageStatements = countStatements(() -> findAllPage(40));
+
+    // Assert
+    assertTrue(smallPageStatements <= maxStatementsPerPage);
+    assertTrue(largePageStatements <= maxStatementsPerPage);
+  }
+
+  @Test
+  @DisplayName("findAll - Vraća podatke o bebi, paketu i statusu bez dodatnih upita")
+  public void testFindAllReturnsJoinedDetails() {
+    // Arrange
+    seedReservations(3);
+
+    // Act
+    Page<ReservationFindAllTableDto> result = findAllPage(10);
+
+    // Assert
+    assertEquals(3, result.getTotalElements());
+    result
+        .getContent()
+        .forEach(
+            dto -> {
+              assertTrue(dto.getBabyDetails().getValue().startsWith("Beba"));
+              assertEquals("Paket upita", dto.getServicePackageName());
+              assertEquals("term_reserved", dto.getStatus().getStatusCode());
+              assertEquals("reservation", dto.getStatus().getStatusType().getStatusTypeCode());
+            });
+  }
+
+  // ==================== FINDALLLIST TESTOVI ====================
+
+  @Test
+  @DisplayName("findAllList - Broj upita ne zavisi od broja rezervacija")
+  public void testFindAllListStatementCountIsConstant() {
+    // Arrange
+    seedReservations(2);
+    long fewRowsStatements = countStatements(() -> reservationService.findAllList());
+    seedReservations(30);
+
+    // Act
+    long manyRowsStatements = countStatements(() -> reservationService.findAllList());
+    List<ReservationFindAllDto> result = reservationService.findAllList();
+
+    // Assert
+    assertEquals(32, result.size());
+    assertEquals(fewRowsStatements, manyRowsStatements);
+  }
+
+  private Page<ReservationFindAllTableDto> findAllPage(int size) {
+    return reservationService.findAll(0, size, null, null, null, null, null, null, null);
+  }
+
+  private long countStatements(Runnable action) {
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+
+    action.run();
+
+    return statistics.getPrepareStatementCount();
+  }
+
+  // rezervacije se rasporedjuju na poolSize aranzmana sa razlicitim korisnikom, paketom i bebom,
+  // pa bi se N+1 upiti vidjeli u broju upita
+  private void seedReservations(int count) {
+    Status reservedStatus = statusService.findByStatusCode("term_reserved");
+    if (arrangements.isEmpty()) {
+      seedArrangements();
+    }
+
+    for (int i = 0; i < count; i++) {
+      Arrangement arrangement = arrangements.get(i % poolSize);
+
+      Reservation reservation = new Reservation();
+      reservation.setArrangement(arrangement);
+      reservation.setStatus(reservedStatus);
+      reservation.setStartDate(LocalDateTime.now().plusDays(i));
+      reservation.setEndDate(LocalDateTime.now().plusDays(i).plusMinutes(30));
+      reservation.setCreatedByUser(arrangement.getCreatedByUser());
+      reservationRepository.save(reservation);
+    }
+  }
+
+  private void seedArrangements() {
+    Status createdStatus = statusService.findByStatusCode("created");
+
+    for (int i = 0; i < poolSize; i++) {
+      User user =
+          userRepository.save(
+              new User(
+                  "upit" + System.nanoTime() + "@mail",
+                  "upit" + System.nanoTime() + "@" + testTenant,
+                  "password",
+                  "Test",
+                  "Korisnik",
+                  testTenant));
+
+      ServicePackage servicePackage = new ServicePackage();
+      servicePackage.setServicePackageName("Paket upita");
+      servicePackage.setTermNumber(10);
+      servicePackage.setServicePackageDurationDays(30);
+      servicePackage.setPrice(new BigDecimal("100.00"));
+      servicePackage.setTenantId(testTenant);
+      servicePackage.setCreatedByUser(user);
+      servicePackageRepository.save(servicePackage);
+
+      Baby baby = new Baby();
+      baby.setBabyName("Beba" + i);
+      baby.setPhoneNumber("06" + i);
+      baby.setCreatedByUser(user);
+      babyRepository.save(baby);
+
+      Arrangement arrangement = new Arrangement();
+      arrangement.setBaby(baby);
+      arrangement.setServicePackage(servicePackage);
+      arrangement.setStatus(createdStatus);
+      arrangement.setPrice(servicePackage.getPrice());
+      arrangement.setRemainingTerm(servicePackage.getTermNumber());
+      arrangement.setCreatedByUser(user);
+      arrangementRepository.save(arrangement);
+      arrangements.add(arrangement);
+    }
+  }
+}
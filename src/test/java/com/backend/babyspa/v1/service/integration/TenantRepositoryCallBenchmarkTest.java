@@ -0,0 +1,219 @@
+package com.backend.babyspa.v1.service.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.babyspa.v1.config.TenantContext;
+import com.backend.babyspa.v1.models.Baby;
+import com.backend.babyspa.v1.models.User;
+import com.backend.babyspa.v1.repositories.BabyRepository;
+import com.backend.babyspa.v1.repositories.UserRepository;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManagerFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+// mikrobenchmark poziva repozitorija: isti poziv se mjeri direktno i kroz advice koji radi isto
+// sto je TenantAspect radio na svakom pozivu (EntityManager transakcije, unwrap sesije,
+// postavljanje parametra filtera i refleksija tenantId polja kod save-a). Rezultat se ispisuje u
+// log, a vremena se ne porede u assert-u jer zavise od masine. Benchmark je iskljucen iz
+// podrazumijevanog build-a (mvn test -Dgroups=benchmark -DexcludedTestGroups= ga pokrece).
+// Podaci se commit-aju, pa se brisu nakon testa.
+@Slf4j
+@SpringBootTest
+@DisplayName("Tenant Benchmark Poziva Repozitorija")
+public class TenantRepositoryCallBenchmarkTest {
+
+  private static final String testTenant = "tenant-benchmark-test";
+
+  private static final String otherTenant = "tenant-benchmark-other";
+
+  private static final int rounds = 5;
+
+  private static final int warmupCalls = 5_000;
+
+  private static final int measuredCalls = 20_000;
+
+  @Autowired private BabyRepository babyRepository;
+
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate transactionTemplate;
+
+  private Baby testTenantBaby;
+
+  private Baby otherTenantBaby;
+
+  @BeforeEach
+  public void setUp() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    testTenantBaby = createBaby(testTenant);
+    otherTenantBaby = createBaby(otherTenant);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    deleteBaby(testTenantBaby);
+    deleteBaby(otherTenantBaby);
+    TenantContext.clear();
+  }
+
+  @Test
+  @DisplayName("Upiti vide samo bebe tenanta iz TenantContext-a, a tenant se upisuje automatski")
+  public void testQueriesAreRestrictedToCurrentTenant() {
+    TenantContext.setTenant(testTenant);
+
+    List<Integer> babyIds =
+        transactionTemplate.execute(
+            status -> babyRepository.findAll().stream().map(Baby::getBabyId).toList());
+
+    assertTrue(babyIds.contains(testTenantBaby.getBabyId()));
+    assertFalse(babyIds.contains(otherTenantBaby.getBabyId()));
+    assertEquals(testTenant, testTenantBaby.getTenantId());
+    assertEquals(otherTenant, otherTenantBaby.getTenantId());
+  }
+
+  @Test
+  @Tag("benchmark")
+  @DisplayName("Benchmark poziva repozitorija sa i bez TenantAspect advice-a")
+  public void testRepositoryCallCostWithAndWithoutTenantAdvice() {
+    TenantContext.setTenant(testTenant);
+    BabyRepository legacyBabyRepository = withLegacyTenantAdvice(babyRepository);
+
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          // beba je u persistence context-u, pa se mjeri samo trosak poziva, bez upita u bazu
+          Baby baby = babyRepository.findById(testTenantBaby.getBabyId()).orElseThrow();
+
+          long[] best = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE};
+          for (int round = 0; round < rounds; round++) {
+            best[0] = Math.min(best[0], measure(() -> babyRepository.findById(baby.getBabyId())));
+            best[1] =
+                Math.min(best[1], measure(() -> legacyBabyRepository.findById(baby.getBabyId())));
+            best[2] = Math.min(best[2], measure(() -> babyRepository.save(baby)));
+            best[3] = Math.min(best[3], measure(() -> legacyBabyRepository.save(baby)));
+          }
+
+          log.info(
+              "findById: @TenantId {} ns/call, TenantAspect {} ns/call; "
+                  + "save: @TenantId {} ns/call, TenantAspect {} ns/call",
+              best[0],
+              best[1],
+              best[2],
+              best[3]);
+
+          // filter tenanta je ukljucen jednom, kod otvaranja sesije
+          Session session =
+              EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory)
+                  .unwrap(Session.class);
+          assertNotNull(session.getEnabledFilter("_tenantId"));
+          assertEquals(testTenant, session.getTenantIdentifier());
+        });
+  }
+
+  // isti posao koji je TenantAspect radio oko svakog poziva repozitorija
+  private BabyRepository withLegacyTenantAdvice(BabyRepository repository) {
+    ProxyFactory proxyFactory = new ProxyFactory();
+    proxyFactory.setTarget(repository);
+    proxyFactory.addInterface(BabyRepository.class);
+    proxyFactory.addAdvice(
+        (MethodInterceptor)
+            invocation -> {
+              if ("save".equals(invocation.getMethod().getName())) {
+                Object entity = invocation.getArguments()[0];
+                if (entity.getClass().isAnnotationPresent(Entity.class)) {
+                  try {
+                    Field tenantIdField = entity.getClass().getDeclaredField("tenantId");
+                    tenantIdField.setAccessible(true);
+                  } catch (NoSuchFieldException e) {
+                    // polje je u TenantEntity, pa ga getDeclaredField na podklasi ne pronalazi
+                  }
+                }
+              }
+
+              Session session =
+                  EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory)
+                      .unwrap(Session.class);
+              if (session.isOpen()) {
+                session
+                    .getEnabledFilter("_tenantId")
+                    .setParameter("tenantId", TenantContext.getTenant());
+              }
+              return invocation.proceed();
+            });
+    return (BabyRepository) proxyFactory.getProxy();
+  }
+
+  // ns po pozivu; prvi dio poziva zagrijava JIT
+  private long measure(Runnable call) {
+    for (int i = 0; i < warmupCalls; i++) {
+      call.run();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < measuredCalls; i++) {
+      call.run();
+    }
+    return (System.nanoTime() - start) / measuredCalls;
+  }
+
+  private Baby createBaby(String tenantId) {
+    TenantContext.setTenant(tenantId);
+    try {
+      return transactionTemplate.execute(
+          status -> {
+            User user =
+                userRepository.save(
+                    new User(
+                        "benchmark" + System.nanoTime() + "@mail",
+                        "benchmark" + System.nanoTime() + "@" + tenantId,
+                        "password",
+                        "Test",
+                        "Korisnik",
+                        tenantId));
+
+            Baby baby = new Baby();
+            baby.setBabyName("Beba");
+            baby.setPhoneNumber("061");
+            baby.setCreatedByUser(user);
+            return babyRepository.save(baby);
+          });
+    } finally {
+      TenantContext.clear();
+    }
+  }
+
+  private void deleteBaby(Baby baby) {
+    if (baby == null) {
+      return;
+    }
+    TenantContext.runWithTenant(
+        baby.getTenantId(),
+        () ->
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                  babyRepository.deleteById(baby.getBabyId());
+                  userRepository.deleteById(baby.getCreatedByUser().getUserId());
+                }));
+  }
+}
@@ -0,0 +1,129 @@
+package com.backend.babyspa.v1.service.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.babyspa.v1.config.TenantContext;
+import com.backend.babyspa.v1.dtos.AddNewTenantUserDto;
+import com.backend.babyspa.v1.models.Role;
+import com.backend.babyspa.v1.models.User;
+import com.backend.babyspa.v1.models.UserRole;
+import com.backend.babyspa.v1.repositories.UserRepository;
+import com.backend.babyspa.v1.repositories.UserRoleRepository;
+import com.backend.babyspa.v1.services.UserService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// zahtjev super admina se izvrsava u njegovom tenantu, sa open-in-view EntityManager-om vezanim
+// za taj tenant, a korisnik se kreira u novom tenantu
+@SpringBootTest
+@DisplayName("UserService Testovi Dodavanja Korisnika Novog Tenanta")
+public class UserServiceAddNewTenantUserTest {
+
+  private static final String superAdminTenant = "super-admin-test";
+
+  private static final String newTenant = "new-tenant-test";
+
+  @Autowired private UserService userService;
+
+  @Autowired private UserRepository userRepository;
+
+  @Autowired private UserRoleRepository userRoleRepository;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate transactionTemplate;
+
+  private EntityManager openInViewEntityManager;
+
+  private User createdUser;
+
+  @BeforeEach
+  public void setUp() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+
+    TenantContext.setTenant(superAdminTenant);
+    openInViewEntityManager = entityManagerFactory.createEntityManager();
+    TransactionSynchronizationManager.bindResource(
+        entityManagerFactory, new EntityManagerHolder(openInViewEntityManager));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+    openInViewEntityManager.close();
+
+    if (createdUser != null) {
+      TenantContext.runWithTenant(
+          newTenant,
+          () ->
+              transactionTemplate.executeWithoutResult(
+                  status -> {
+                    userRoleRepository.deleteByUser(createdUser);
+                    userRepository.deleteById(createdUser.getUserId());
+                  }));
+    }
+    TenantContext.clear();
+  }
+
+  @Test
+  @DisplayName("Super admin drugog tenanta kreira korisnika sa ulogom ROLE_ADMIN u novom tenantu")
+  public void testAddNewTenantUserFromAnotherTenant() {
+    AddNewTenantUserDto addNewTenantUserDto = new AddNewTenantUserDto();
+    addNewTenantUserDto.setUsername("admin" + System.nanoTime() + "@" + newTenant);
+    addNewTenantUserDto.setEmail("admin" + System.nanoTime() + "@mail");
+    addNewTenantUserDto.setFirstName("Novi");
+    addNewTenantUserDto.setLastName("Tenant");
+    addNewTenantUserDto.setPassword("password");
+
+    Authentication authentication =
+        new UsernamePasswordAuthenticationToken(
+            "super@" + superAdminTenant,
+            null,
+            List.of(new SimpleGrantedAuthority("ROLE_SUPER_ADMIN")));
+
+    createdUser = userService.addNewTenantUser(addNewTenantUserDto, authentication);
+
+    assertEquals(newTenant, createdUser.getTenantId());
+    assertEquals(superAdminTenant, TenantContext.getTenant());
+    assertSame(
+        openInViewEntityManager,
+        ((EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory))
+            .getEntityManager());
+
+    // provjera ide kroz novu sesiju, bez open-in-view EntityManager-a super admina
+    TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+    List<String> roleNames =
+        TenantContext.callWithTenant(
+            newTenant,
+            () ->
+                transactionTemplate.execute(
+                    status ->
+                        userRoleRepository
+                            .findByUser(
+                                userRepository.findById(createdUser.getUserId()).orElseThrow())
+                            .stream()
+                            .map(UserRole::getRole)
+                            .map(Role::getRoleName)
+                            .toList()));
+    assertEquals(List.of("ROLE_ADMIN"), roleNames);
+  }
+}
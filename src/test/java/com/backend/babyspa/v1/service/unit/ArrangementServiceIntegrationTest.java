@@ -35,6 +35,8 @@ import com.backend.babyspa.v1.repositories.ArrangementRepository;
 import com.backend.babyspa.v1.repositories.ReservationRepository;
 import com.backend.babyspa.v1.utils.SecurityUtil;
 
+import jakarta.persistence.EntityManager;
+
 @ExtendWith(MockitoExtension.class)
 @DisplayName("ArrangementService Integracijiski Testovi")
 public class ArrangementServiceIntegrationTest {
@@ -59,6 +61,8 @@ public class ArrangementServiceIntegrationTest {
 
   @Mock private SecurityUtil securityUtil;
 
+  @Mock private EntityManager entityManager;
+
   @InjectMocks private ArrangementService arrangementService;
 
   private User currentUser;
@@ -587,14 +591,29 @@ public class ArrangementServiceIntegrationTest {
   public void testDecreaseRemainingTerm() {
     // Arrange
     testArrangement.setRemainingTerm(5);
-    when(arrangementRepository.save(any(Arrangement.class))).thenReturn(testArrangement);
+    when(arrangementRepository.decreaseRemainingTerm(1, testArrangement.getTenantId()))
+        .thenReturn(1);
 
     // Act
     arrangementService.decreaseRemainingTerm(testArrangement);
 
     // Assert
     assertEquals(4, testArrangement.getRemainingTerm());
-    verify(arrangementRepository, times(1)).save(testArrangement);
+    verify(arrangementRepository, never()).save(any(Arrangement.class));
+  }
+
+  @Test
+  @DisplayName("decreaseRemainingTerm - Baca izuzetak kad su termini potrošeni")
+  public void testDecreaseRemainingTerm_NoRemainingTerm() {
+    // Arrange
+    testArrangement.setRemainingTerm(0);
+    when(arrangementRepository.decreaseRemainingTerm(1, testArrangement.getTenantId()))
+        .thenReturn(0);
+
+    // Act & Assert
+    assertThrows(
+        BusinessException.class, () -> arrangementService.decreaseRemainingTerm(testArrangement));
+    assertEquals(0, testArrangement.getRemainingTerm());
   }
 
   @Test
@@ -602,14 +621,15 @@ public class ArrangementServiceIntegrationTest {
   public void testIncreaseRemainingTerm() {
     // Arrange
     testArrangement.setRemainingTerm(5);
-    when(arrangementRepository.save(any(Arrangement.class))).thenReturn(testArrangement);
+    when(arrangementRepository.increaseRemainingTerm(1, testArrangement.getTenantId()))
+        .thenReturn(1);
 
     // Act
     arrangementService.increaseRemainingTerm(testArrangement);
 
     // Assert
     assertEquals(6, testArrangement.getRemainingTerm());
-    verify(arrangementRepository, times(1)).save(testArrangement);
+    verify(arrangementRepository, never()).save(any(Arrangement.class));
   }
 
   // ==================== EXIST TESTOVI ====================